@@ -5,9 +5,73 @@ CREATE TABLE IF NOT EXISTS products (
     price DECIMAL(19, 2),
     quantity INT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    -- Name order of the merged page: lower-cased and compared by code point, the same as MySQL's
+    name_key VARCHAR(255) COLLATE "C" GENERATED ALWAYS AS (lower(name)) STORED
 );
 
+-- The entity uses a pooled sequence generator with allocationSize 50; the increments must match
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_products_name_key_id ON products (name_key, id);
+
+-- Trigram index so name ILIKE '%term%' searches do not scan the table
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
+
+-- Products created with POST /api/products/sync?mode=outbox, waiting to be copied to MySQL
+CREATE TABLE IF NOT EXISTS product_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    price DECIMAL(19, 2),
+    quantity INT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500)
+);
+
+-- Outbox rows from MySQL already copied here, so a replayed batch is not inserted twice
+CREATE TABLE IF NOT EXISTS product_sync_applied (
+    origin VARCHAR(16) NOT NULL,
+    outbox_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (origin, outbox_id)
+);
+
+-- Incremental replication (app.replication.enabled=true)
+-- Rows of this table that mirror a row of the other database
+CREATE TABLE IF NOT EXISTS product_replica_links (
+    origin VARCHAR(16) NOT NULL,
+    origin_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    PRIMARY KEY (origin, origin_id),
+    UNIQUE (product_id)
+);
+
+-- Products deleted through the application, read by the other database's replicator
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+
+-- How far this database has applied the other database's changes
+CREATE TABLE IF NOT EXISTS product_replication_watermark (
+    origin VARCHAR(16) PRIMARY KEY,
+    updated_at TIMESTAMP(6) NOT NULL,
+    last_id BIGINT NOT NULL,
+    tombstone_id BIGINT NOT NULL
+);
+INSERT INTO product_replication_watermark (origin, updated_at, last_id, tombstone_id)
+VALUES ('MYSQL', '1970-01-01 00:00:00', 0, 0);
+
 -- Insert sample data
 INSERT INTO products (name, description, price, quantity) VALUES
 ('Postgres Product 1', 'Description for Postgres Product 1', 19.99, 100),
@@ -0,0 +1,61 @@
+package id.my.hendisantika.dualdbdemo.cache;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change version of one database's products table. The database's {@code ProductStore} calls {@link #bump()}
+ * after every product write commits; {@link #reconcile} bumps it when a periodically read
+ * {@link TableFingerprint} shows a change made elsewhere (another instance, a script, a restore).
+ * <p>
+ * The version restarts at zero on every start, so {@link #tag()} also carries the start time and a tag
+ * from a previous run never matches.
+ */
+public class ChangeVersion {
+
+    private final String prefix;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private TableFingerprint fingerprint;
+    private long versionAtFingerprint;
+
+    public ChangeVersion(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    public String tag() {
+        return prefix + epoch + "-" + version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Bumps the version if the fingerprint differs from the previous one.
+     *
+     * @return {@link Change#EXTERNAL} when it moved although nothing was written through this instance since
+     * the previous fingerprint, so the change certainly came from elsewhere
+     */
+    public synchronized Change reconcile(TableFingerprint observed) {
+        Change change = Change.NONE;
+        if (fingerprint != null && !Objects.equals(fingerprint, observed)) {
+            change = version.get() == versionAtFingerprint ? Change.EXTERNAL : Change.LOCAL;
+            bump();
+        }
+        fingerprint = observed;
+        versionAtFingerprint = version.get();
+        return change;
+    }
+
+    public enum Change {
+        NONE,
+        // Written through this instance, maybe elsewhere too
+        LOCAL,
+        EXTERNAL
+    }
+}
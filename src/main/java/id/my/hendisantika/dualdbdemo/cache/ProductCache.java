@@ -0,0 +1,81 @@
+package id.my.hendisantika.dualdbdemo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of products by id for one database, in front of a bounded Caffeine cache.
+ * <p>
+ * Writers call {@link #put} or {@link #invalidate} after their transaction commits. Each key hashes to a
+ * generation counter that writers bump first, and a read only caches what it loaded if that generation did
+ * not move while it was querying, so a read that raced a commit cannot put the pre-commit row back.
+ */
+public class ProductCache {
+
+    private static final int STRIPES = 64;
+
+    private final Cache<Long, ProductResponse> cache;
+    private final boolean enabled;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    public ProductCache(Cache<Long, ProductResponse> cache, boolean enabled) {
+        this.cache = cache;
+        this.enabled = enabled;
+    }
+
+    public Optional<ProductResponse> get(Long id, Supplier<Optional<ProductResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        ProductResponse cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        Optional<ProductResponse> loaded = loader.get();
+        loaded.ifPresent(product -> {
+            if (generations.get(stripe) == generation) {
+                cache.put(id, product);
+                // A write may have committed between the check and the put
+                if (generations.get(stripe) != generation) {
+                    cache.invalidate(id);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    public void put(ProductResponse product) {
+        if (enabled) {
+            generations.incrementAndGet(stripe(product.getId()));
+            cache.put(product.getId(), product);
+        }
+    }
+
+    public void invalidate(Long id) {
+        if (enabled) {
+            generations.incrementAndGet(stripe(id));
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    public Cache<Long, ProductResponse> getCache() {
+        return cache;
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,20 @@
+package id.my.hendisantika.dualdbdemo.cache;
+
+import java.util.List;
+
+/**
+ * A serialized list response and the ETag of the change versions it was read at.
+ *
+ * @param etag           {@code null} for partial responses, which are never reused
+ * @param missingSources databases left out of a partial response
+ */
+public record ResponseSnapshot(String etag, byte[] body, List<String> missingSources) {
+
+    public static ResponseSnapshot complete(String etag, byte[] body) {
+        return new ResponseSnapshot(etag, body, List.of());
+    }
+
+    public boolean isPartial() {
+        return !missingSources.isEmpty();
+    }
+}
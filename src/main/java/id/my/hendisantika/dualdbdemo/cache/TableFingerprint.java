@@ -0,0 +1,11 @@
+package id.my.hendisantika.dualdbdemo.cache;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cheap summary of a products table: two index lookups, never a scan. {@code maxId} catches inserts within
+ * the second of {@code maxUpdatedAt}, which MySQL stores with second precision. Deletes and updates that
+ * leave both unchanged are not seen.
+ */
+public record TableFingerprint(LocalDateTime maxUpdatedAt, Long maxId) {
+}
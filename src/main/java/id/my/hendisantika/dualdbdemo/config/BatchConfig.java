@@ -0,0 +1,10 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.properties.BatchProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchConfig {
+}
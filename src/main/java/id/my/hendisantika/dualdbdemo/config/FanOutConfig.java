@@ -0,0 +1,37 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.properties.FanOutProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableConfigurationProperties(FanOutProperties.class)
+public class FanOutConfig {
+
+    /**
+     * Runs the per-database legs of cross-database operations, keeping blocking JDBC work off the
+     * common ForkJoinPool. Virtual threads are bounded in practice by the connection pools; platform
+     * threads use a fixed pool with a bounded queue and reject work beyond it.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService productFanOutExecutor(FanOutProperties properties) {
+        if (properties.isVirtualThreads()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("FanOut-", 1).factory());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), r -> {
+            Thread t = new Thread(r, "FanOut-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,25 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class HostProbeConfig {
+
+    /**
+     * Single scheduler shared by the host probes of every failover datasource.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService hostProbeScheduler() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "HostProbe-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
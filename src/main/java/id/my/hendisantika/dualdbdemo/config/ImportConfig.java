@@ -0,0 +1,30 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.ImportProperties;
+import id.my.hendisantika.dualdbdemo.importer.ProductImporter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@EnableConfigurationProperties(ImportProperties.class)
+public class ImportConfig {
+
+    @Bean
+    public ProductImporter productImporter(ImportProperties properties,
+                                           @Qualifier("productFanOutExecutor") ExecutorService executor,
+                                           ObjectMapper objectMapper,
+                                           @Qualifier("mysqlImportDataSource") DataSource mysqlImportDataSource,
+                                           @Qualifier("postgresDataSource") DataSource postgresDataSource) {
+        ProductImporter importer = new ProductImporter(properties, executor, objectMapper);
+        importer.register(DatabaseVendor.MYSQL, mysqlImportDataSource, ProductImporter::loadDataLocalInfile);
+        importer.register(DatabaseVendor.POSTGRESQL, postgresDataSource, ProductImporter::copyIn);
+        return importer;
+    }
+}
@@ -0,0 +1,62 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.InventoryProperties;
+import id.my.hendisantika.dualdbdemo.inventory.ProductStock;
+import id.my.hendisantika.dualdbdemo.inventory.ReservationCombiner;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@EnableConfigurationProperties(InventoryProperties.class)
+public class InventoryConfig {
+
+    @Bean
+    public ProductStock mysqlProductStock(@Qualifier("mysqlJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        return new ProductStock(DatabaseVendor.MYSQL, jdbcTemplate);
+    }
+
+    @Bean
+    public ProductStock postgresProductStock(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        return new ProductStock(DatabaseVendor.POSTGRESQL, jdbcTemplate);
+    }
+
+    @Bean
+    public ReservationCombiner mysqlReservationCombiner(@Qualifier("mysqlProductStock") ProductStock stock,
+                                                        InventoryProperties properties) {
+        return new ReservationCombiner(stock, properties.getCombining());
+    }
+
+    @Bean
+    public ReservationCombiner postgresReservationCombiner(@Qualifier("postgresProductStock") ProductStock stock,
+                                                           InventoryProperties properties) {
+        return new ReservationCombiner(stock, properties.getCombining());
+    }
+
+    // requests / statements is how many reservations share one UPDATE
+    @Bean
+    public MeterBinder reservationMetrics(@Qualifier("mysqlReservationCombiner") ReservationCombiner mysqlReservationCombiner,
+                                          @Qualifier("postgresReservationCombiner") ReservationCombiner postgresReservationCombiner) {
+        return registry -> {
+            bind(registry, mysqlReservationCombiner, "mysql");
+            bind(registry, postgresReservationCombiner, "postgresql");
+        };
+    }
+
+    private static void bind(MeterRegistry registry, ReservationCombiner combiner, String database) {
+        FunctionCounter.builder("product.reservation.requests", combiner, ReservationCombiner::getRequests)
+                .description("Reservations handled by the combiner")
+                .tag("database", database)
+                .register(registry);
+        FunctionCounter.builder("product.reservation.statements", combiner, ReservationCombiner::getStatements)
+                .description("Statements the combiner sent for them")
+                .tag("database", database)
+                .register(registry);
+    }
+}
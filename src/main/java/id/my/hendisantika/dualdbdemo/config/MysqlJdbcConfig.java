@@ -1,18 +1,28 @@
 package id.my.hendisantika.dualdbdemo.config;
 
+import com.mysql.cj.jdbc.Driver;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.datasource.FailoverDataSource;
+import id.my.hendisantika.dualdbdemo.config.datasource.FailoverHealthIndicator;
+import id.my.hendisantika.dualdbdemo.config.datasource.HedgedReader;
+import id.my.hendisantika.dualdbdemo.config.datasource.ReadWriteRoutingDataSource;
 import id.my.hendisantika.dualdbdemo.config.properties.DatabaseHost;
 import id.my.hendisantika.dualdbdemo.config.properties.MysqlProperties;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.persistence.EntityManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.health.contributor.HealthIndicator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -20,15 +30,11 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by IntelliJ IDEA.
@@ -54,9 +60,12 @@ public class MysqlJdbcConfig {
     private static final Logger log = LoggerFactory.getLogger(MysqlJdbcConfig.class);
 
     private final MysqlProperties properties;
+    private final ScheduledExecutorService hostProbeScheduler;
 
-    public MysqlJdbcConfig(MysqlProperties properties) {
+    public MysqlJdbcConfig(MysqlProperties properties,
+                           @Qualifier("hostProbeScheduler") ScheduledExecutorService hostProbeScheduler) {
         this.properties = properties;
+        this.hostProbeScheduler = hostProbeScheduler;
     }
 
     @Bean
@@ -80,13 +89,26 @@ public class MysqlJdbcConfig {
             log.info("  Host {}: {}:{}", i, hosts.get(i).getHost(), hosts.get(i).getPort());
         }
 
-        return new FailoverDataSource(hosts, properties);
+        FailoverDataSource failoverDataSource = new FailoverDataSource(DatabaseVendor.MYSQL, hosts,
+                properties.getFailover(), properties.getPool(), properties.getReadRouting(),
+                this::createHikariConfig, hostProbeScheduler);
+
+        if (properties.getReadRouting().isEnabled()) {
+            log.info("MySQL read-only transactions will be routed to secondary hosts");
+            return new ReadWriteRoutingDataSource(failoverDataSource);
+        }
+        return failoverDataSource;
     }
 
     private HikariDataSource createHikariDataSource(DatabaseHost host) {
+        return new HikariDataSource(createHikariConfig(host));
+    }
+
+    private HikariConfig createHikariConfig(DatabaseHost host) {
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC",
-                host.getHost(), host.getPort(), properties.getDatabase()));
+        // No useCursorFetch: it would turn every statement of the pool into a server-side prepared statement,
+        // and streamAll streams through its Integer.MIN_VALUE fetch size instead
+        config.setJdbcUrl(createJdbcUrl(host));
         config.setUsername(properties.getUsername());
         config.setPassword(properties.getPassword());
         config.setDriverClassName("com.mysql.cj.jdbc.Driver");
@@ -100,7 +122,68 @@ public class MysqlJdbcConfig {
         config.setConnectionTestQuery("SELECT 1");
         config.setPoolName("MySQL-HikariPool-" + host.getHost() + ":" + host.getPort());
 
-        return new HikariDataSource(config);
+        return config;
+    }
+
+    // rewriteBatchedStatements sends a JDBC batch of INSERTs as multi-row INSERTs
+    private String createJdbcUrl(DatabaseHost host) {
+        return String.format("jdbc:mysql://%s:%d/%s?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC"
+                        + "&rewriteBatchedStatements=true",
+                host.getHost(), host.getPort(), properties.getDatabase());
+    }
+
+    /**
+     * Connections for the bulk importer's {@code LOAD DATA LOCAL INFILE}, the only ones opened with
+     * {@code allowLoadLocalInfile}. With it the server may ask the client for any file the application can
+     * read, so the shared pool never enables it. Imports are rare and long, so these connections are not
+     * pooled; each one goes to the host the main data source is currently writing to.
+     */
+    @Bean
+    public DataSource mysqlImportDataSource(@Qualifier("mysqlDataSource") DataSource dataSource) throws SQLException {
+        FailoverDataSource failoverDataSource = dataSource.isWrapperFor(FailoverDataSource.class)
+                ? dataSource.unwrap(FailoverDataSource.class)
+                : null;
+        SimpleDriverDataSource importDataSource = new SimpleDriverDataSource() {
+            @Override
+            public String getUrl() {
+                DatabaseHost host = failoverDataSource != null
+                        ? failoverDataSource.getHosts().get(failoverDataSource.getActiveHostIndex())
+                        : properties.getHosts().get(0);
+                return createJdbcUrl(host) + "&allowLoadLocalInfile=true";
+            }
+        };
+        importDataSource.setDriverClass(Driver.class);
+        importDataSource.setUsername(properties.getUsername());
+        importDataSource.setPassword(properties.getPassword());
+        return importDataSource;
+    }
+
+    @Bean
+    public MeterBinder mysqlFailoverMetrics(@Qualifier("mysqlDataSource") DataSource dataSource) throws SQLException {
+        // Single-host setups are plain Hikari beans, which Boot's pool metrics already cover
+        return dataSource.isWrapperFor(FailoverDataSource.class)
+                ? dataSource.unwrap(FailoverDataSource.class)
+                : registry -> {
+                };
+    }
+
+    @Bean
+    public HealthIndicator mysqlHealthIndicator(@Qualifier("mysqlDataSource") DataSource dataSource) throws SQLException {
+        return new FailoverHealthIndicator(DatabaseVendor.MYSQL, dataSource, properties.getFailover());
+    }
+
+    @Bean
+    public HedgedReader mysqlHedgedReader(@Qualifier("mysqlDataSource") DataSource dataSource) throws SQLException {
+        return new HedgedReader(DatabaseVendor.MYSQL, dataSource, properties.getReadRouting().getHedge());
+    }
+
+    /**
+     * MySQL keeps IDENTITY keys, which Hibernate cannot batch, so bulk inserts go through plain JDBC batches.
+     * Used inside {@code mysqlTransactionManager} transactions, it shares the JPA connection.
+     */
+    @Bean
+    public JdbcTemplate mysqlJdbcTemplate(@Qualifier("mysqlDataSource") DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
     }
 
     @Bean
@@ -133,165 +216,4 @@ public class MysqlJdbcConfig {
             @Qualifier("mysqlEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
         return new JpaTransactionManager(entityManagerFactory);
     }
-
-    /**
-     * Failover-aware DataSource that switches between hosts on connection failure
-     */
-    private class FailoverDataSource implements DataSource {
-
-        private final List<DatabaseHost> hosts;
-        private final MysqlProperties props;
-        private final AtomicInteger activeHostIndex = new AtomicInteger(0);
-        private final ScheduledExecutorService healthChecker;
-        private volatile HikariDataSource currentDataSource;
-
-        FailoverDataSource(List<DatabaseHost> hosts, MysqlProperties props) {
-            this.hosts = hosts;
-            this.props = props;
-            this.currentDataSource = createHikariDataSource(hosts.get(0));
-
-            // Start health check scheduler
-            this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "MySQL-HealthChecker");
-                t.setDaemon(true);
-                return t;
-            });
-
-            healthChecker.scheduleWithFixedDelay(
-                    this::checkPrimaryHealth,
-                    props.getFailover().getHealthCheckInterval(),
-                    props.getFailover().getHealthCheckInterval(),
-                    TimeUnit.MILLISECONDS
-            );
-        }
-
-        private void checkPrimaryHealth() {
-            // If we're not on primary, check if primary is back
-            if (activeHostIndex.get() != 0) {
-                DatabaseHost primaryHost = hosts.get(0);
-                try (Connection conn = createHikariDataSource(primaryHost).getConnection()) {
-                    if (conn.isValid(5)) {
-                        log.info("MySQL primary host {}:{} is back online, switching back",
-                                primaryHost.getHost(), primaryHost.getPort());
-                        switchToHost(0);
-                    }
-                } catch (SQLException e) {
-                    log.debug("MySQL primary host still unavailable: {}", e.getMessage());
-                }
-            }
-        }
-
-        @Override
-        public Connection getConnection() throws SQLException {
-            return getConnectionWithFailover();
-        }
-
-        @Override
-        public Connection getConnection(String username, String password) throws SQLException {
-            return getConnectionWithFailover();
-        }
-
-        private Connection getConnectionWithFailover() throws SQLException {
-            int retries = 0;
-            SQLException lastException = null;
-
-            while (retries <= props.getFailover().getMaxRetries()) {
-                try {
-                    Connection conn = currentDataSource.getConnection();
-                    if (conn.isValid(5)) {
-                        return conn;
-                    }
-                } catch (SQLException e) {
-                    lastException = e;
-                    log.warn("MySQL connection failed (attempt {}): {}", retries + 1, e.getMessage());
-
-                    if (isConnectionError(e)) {
-                        switchToNextHost();
-                        try {
-                            Thread.sleep(props.getFailover().getRetryDelay());
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new SQLException("Interrupted during failover retry", ie);
-                        }
-                    }
-                }
-                retries++;
-            }
-
-            log.error("MySQL connection failed after all retries");
-            throw lastException != null ? lastException :
-                    new SQLException("Failed to obtain MySQL connection after all retries");
-        }
-
-        private boolean isConnectionError(SQLException e) {
-            String message = e.getMessage();
-            return message != null && (
-                    message.contains("Connection refused") ||
-                            message.contains("Communications link failure") ||
-                            message.contains("Unable to connect") ||
-                            message.contains("Connection timed out") ||
-                            e.getSQLState() != null && e.getSQLState().startsWith("08")
-            );
-        }
-
-        private synchronized void switchToNextHost() {
-            int nextIndex = (activeHostIndex.get() + 1) % hosts.size();
-            switchToHost(nextIndex);
-        }
-
-        private synchronized void switchToHost(int index) {
-            if (index != activeHostIndex.get()) {
-                DatabaseHost nextHost = hosts.get(index);
-                log.info("MySQL switching to host: {}:{}", nextHost.getHost(), nextHost.getPort());
-
-                HikariDataSource oldDataSource = currentDataSource;
-                currentDataSource = createHikariDataSource(nextHost);
-                activeHostIndex.set(index);
-
-                // Close old datasource in background
-                if (oldDataSource != null) {
-                    try {
-                        oldDataSource.close();
-                    } catch (Exception e) {
-                        log.warn("Error closing old MySQL datasource: {}", e.getMessage());
-                    }
-                }
-            }
-        }
-
-        @Override
-        public java.io.PrintWriter getLogWriter() throws SQLException {
-            return currentDataSource.getLogWriter();
-        }
-
-        @Override
-        public void setLogWriter(java.io.PrintWriter out) throws SQLException {
-            currentDataSource.setLogWriter(out);
-        }
-
-        @Override
-        public int getLoginTimeout() throws SQLException {
-            return currentDataSource.getLoginTimeout();
-        }
-
-        @Override
-        public void setLoginTimeout(int seconds) throws SQLException {
-            currentDataSource.setLoginTimeout(seconds);
-        }
-
-        @Override
-        public java.util.logging.Logger getParentLogger() throws java.sql.SQLFeatureNotSupportedException {
-            return currentDataSource.getParentLogger();
-        }
-
-        @Override
-        public <T> T unwrap(Class<T> iface) throws SQLException {
-            return currentDataSource.unwrap(iface);
-        }
-
-        @Override
-        public boolean isWrapperFor(Class<?> iface) throws SQLException {
-            return currentDataSource.isWrapperFor(iface);
-        }
-    }
 }
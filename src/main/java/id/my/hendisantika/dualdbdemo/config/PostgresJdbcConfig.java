@@ -2,16 +2,24 @@ package id.my.hendisantika.dualdbdemo.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.datasource.FailoverDataSource;
+import id.my.hendisantika.dualdbdemo.config.datasource.FailoverHealthIndicator;
+import id.my.hendisantika.dualdbdemo.config.datasource.HedgedReader;
+import id.my.hendisantika.dualdbdemo.config.datasource.ReadWriteRoutingDataSource;
 import id.my.hendisantika.dualdbdemo.config.properties.DatabaseHost;
 import id.my.hendisantika.dualdbdemo.config.properties.PostgresProperties;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.persistence.EntityManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.health.contributor.HealthIndicator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -19,15 +27,11 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by IntelliJ IDEA.
@@ -53,9 +57,12 @@ public class PostgresJdbcConfig {
     private static final Logger log = LoggerFactory.getLogger(PostgresJdbcConfig.class);
 
     private final PostgresProperties properties;
+    private final ScheduledExecutorService hostProbeScheduler;
 
-    public PostgresJdbcConfig(PostgresProperties properties) {
+    public PostgresJdbcConfig(PostgresProperties properties,
+                              @Qualifier("hostProbeScheduler") ScheduledExecutorService hostProbeScheduler) {
         this.properties = properties;
+        this.hostProbeScheduler = hostProbeScheduler;
     }
 
     @Bean
@@ -78,12 +85,25 @@ public class PostgresJdbcConfig {
             log.info("  Host {}: {}:{}", i, hosts.get(i).getHost(), hosts.get(i).getPort());
         }
 
-        return new FailoverDataSource(hosts, properties);
+        FailoverDataSource failoverDataSource = new FailoverDataSource(DatabaseVendor.POSTGRESQL, hosts,
+                properties.getFailover(), properties.getPool(), properties.getReadRouting(),
+                this::createHikariConfig, hostProbeScheduler);
+
+        if (properties.getReadRouting().isEnabled()) {
+            log.info("PostgreSQL read-only transactions will be routed to secondary hosts");
+            return new ReadWriteRoutingDataSource(failoverDataSource);
+        }
+        return failoverDataSource;
     }
 
     private HikariDataSource createHikariDataSource(DatabaseHost host) {
+        return new HikariDataSource(createHikariConfig(host));
+    }
+
+    private HikariConfig createHikariConfig(DatabaseHost host) {
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(String.format("jdbc:postgresql://%s:%d/%s",
+        // reWriteBatchedInserts turns a JDBC batch of single-row INSERTs into multi-row INSERTs
+        config.setJdbcUrl(String.format("jdbc:postgresql://%s:%d/%s?reWriteBatchedInserts=true",
                 host.getHost(), host.getPort(), properties.getDatabase()));
         config.setUsername(properties.getUsername());
         config.setPassword(properties.getPassword());
@@ -98,7 +118,34 @@ public class PostgresJdbcConfig {
         config.setConnectionTestQuery("SELECT 1");
         config.setPoolName("PostgreSQL-HikariPool-" + host.getHost() + ":" + host.getPort());
 
-        return new HikariDataSource(config);
+        return config;
+    }
+
+    @Bean
+    public MeterBinder postgresFailoverMetrics(@Qualifier("postgresDataSource") DataSource dataSource) throws SQLException {
+        // Single-host setups are plain Hikari beans, which Boot's pool metrics already cover
+        return dataSource.isWrapperFor(FailoverDataSource.class)
+                ? dataSource.unwrap(FailoverDataSource.class)
+                : registry -> {
+                };
+    }
+
+    @Bean
+    public HealthIndicator postgresHealthIndicator(@Qualifier("postgresDataSource") DataSource dataSource) throws SQLException {
+        return new FailoverHealthIndicator(DatabaseVendor.POSTGRESQL, dataSource, properties.getFailover());
+    }
+
+    @Bean
+    public HedgedReader postgresHedgedReader(@Qualifier("postgresDataSource") DataSource dataSource) throws SQLException {
+        return new HedgedReader(DatabaseVendor.POSTGRESQL, dataSource, properties.getReadRouting().getHedge());
+    }
+
+    /**
+     * Used inside {@code postgresTransactionManager} transactions, it shares the JPA connection.
+     */
+    @Bean
+    public JdbcTemplate postgresJdbcTemplate(@Qualifier("postgresDataSource") DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
     }
 
     @Bean
@@ -118,6 +165,9 @@ public class PostgresJdbcConfig {
         jpaProperties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         jpaProperties.put("hibernate.format_sql", true);
         jpaProperties.put("hibernate.hbm2ddl.auto", "none");
+        // Sequence ids let Hibernate group inserts into JDBC batches
+        jpaProperties.put("hibernate.jdbc.batch_size", 50);
+        jpaProperties.put("hibernate.order_inserts", true);
         em.setJpaPropertyMap(jpaProperties);
 
         return em;
@@ -129,165 +179,4 @@ public class PostgresJdbcConfig {
             @Qualifier("postgresEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
         return new JpaTransactionManager(entityManagerFactory);
     }
-
-    /**
-     * Failover-aware DataSource that switches between hosts on connection failure
-     */
-    private class FailoverDataSource implements DataSource {
-
-        private final List<DatabaseHost> hosts;
-        private final PostgresProperties props;
-        private final AtomicInteger activeHostIndex = new AtomicInteger(0);
-        private final ScheduledExecutorService healthChecker;
-        private volatile HikariDataSource currentDataSource;
-
-        FailoverDataSource(List<DatabaseHost> hosts, PostgresProperties props) {
-            this.hosts = hosts;
-            this.props = props;
-            this.currentDataSource = createHikariDataSource(hosts.get(0));
-
-            // Start health check scheduler
-            this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "PostgreSQL-HealthChecker");
-                t.setDaemon(true);
-                return t;
-            });
-
-            healthChecker.scheduleWithFixedDelay(
-                    this::checkPrimaryHealth,
-                    props.getFailover().getHealthCheckInterval(),
-                    props.getFailover().getHealthCheckInterval(),
-                    TimeUnit.MILLISECONDS
-            );
-        }
-
-        private void checkPrimaryHealth() {
-            // If we're not on primary, check if primary is back
-            if (activeHostIndex.get() != 0) {
-                DatabaseHost primaryHost = hosts.get(0);
-                try (Connection conn = createHikariDataSource(primaryHost).getConnection()) {
-                    if (conn.isValid(5)) {
-                        log.info("PostgreSQL primary host {}:{} is back online, switching back",
-                                primaryHost.getHost(), primaryHost.getPort());
-                        switchToHost(0);
-                    }
-                } catch (SQLException e) {
-                    log.debug("PostgreSQL primary host still unavailable: {}", e.getMessage());
-                }
-            }
-        }
-
-        @Override
-        public Connection getConnection() throws SQLException {
-            return getConnectionWithFailover();
-        }
-
-        @Override
-        public Connection getConnection(String username, String password) throws SQLException {
-            return getConnectionWithFailover();
-        }
-
-        private Connection getConnectionWithFailover() throws SQLException {
-            int retries = 0;
-            SQLException lastException = null;
-
-            while (retries <= props.getFailover().getMaxRetries()) {
-                try {
-                    Connection conn = currentDataSource.getConnection();
-                    if (conn.isValid(5)) {
-                        return conn;
-                    }
-                } catch (SQLException e) {
-                    lastException = e;
-                    log.warn("PostgreSQL connection failed (attempt {}): {}", retries + 1, e.getMessage());
-
-                    if (isConnectionError(e)) {
-                        switchToNextHost();
-                        try {
-                            Thread.sleep(props.getFailover().getRetryDelay());
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new SQLException("Interrupted during failover retry", ie);
-                        }
-                    }
-                }
-                retries++;
-            }
-
-            log.error("PostgreSQL connection failed after all retries");
-            throw lastException != null ? lastException :
-                    new SQLException("Failed to obtain PostgreSQL connection after all retries");
-        }
-
-        private boolean isConnectionError(SQLException e) {
-            String message = e.getMessage();
-            return message != null && (
-                    message.contains("Connection refused") ||
-                            message.contains("Unable to connect") ||
-                            message.contains("Connection timed out") ||
-                            message.contains("FATAL") ||
-                            e.getSQLState() != null && e.getSQLState().startsWith("08")
-            );
-        }
-
-        private synchronized void switchToNextHost() {
-            int nextIndex = (activeHostIndex.get() + 1) % hosts.size();
-            switchToHost(nextIndex);
-        }
-
-        private synchronized void switchToHost(int index) {
-            if (index != activeHostIndex.get()) {
-                DatabaseHost nextHost = hosts.get(index);
-                log.info("PostgreSQL switching to host: {}:{}", nextHost.getHost(), nextHost.getPort());
-
-                HikariDataSource oldDataSource = currentDataSource;
-                currentDataSource = createHikariDataSource(nextHost);
-                activeHostIndex.set(index);
-
-                // Close old datasource in background
-                if (oldDataSource != null) {
-                    try {
-                        oldDataSource.close();
-                    } catch (Exception e) {
-                        log.warn("Error closing old PostgreSQL datasource: {}", e.getMessage());
-                    }
-                }
-            }
-        }
-
-        @Override
-        public java.io.PrintWriter getLogWriter() throws SQLException {
-            return currentDataSource.getLogWriter();
-        }
-
-        @Override
-        public void setLogWriter(java.io.PrintWriter out) throws SQLException {
-            currentDataSource.setLogWriter(out);
-        }
-
-        @Override
-        public int getLoginTimeout() throws SQLException {
-            return currentDataSource.getLoginTimeout();
-        }
-
-        @Override
-        public void setLoginTimeout(int seconds) throws SQLException {
-            currentDataSource.setLoginTimeout(seconds);
-        }
-
-        @Override
-        public java.util.logging.Logger getParentLogger() throws java.sql.SQLFeatureNotSupportedException {
-            return currentDataSource.getParentLogger();
-        }
-
-        @Override
-        public <T> T unwrap(Class<T> iface) throws SQLException {
-            return currentDataSource.unwrap(iface);
-        }
-
-        @Override
-        public boolean isWrapperFor(Class<?> iface) throws SQLException {
-            return currentDataSource.isWrapperFor(iface);
-        }
-    }
 }
@@ -0,0 +1,59 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.my.hendisantika.dualdbdemo.cache.ChangeVersion;
+import id.my.hendisantika.dualdbdemo.cache.ProductCache;
+import id.my.hendisantika.dualdbdemo.config.properties.ProductCacheProperties;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(ProductCacheProperties.class)
+public class ProductCacheConfig {
+
+    @Bean
+    public ProductCache mysqlProductCache(ProductCacheProperties properties) {
+        return productCache(properties);
+    }
+
+    @Bean
+    public ProductCache postgresProductCache(ProductCacheProperties properties) {
+        return productCache(properties);
+    }
+
+    @Bean
+    public MeterBinder mysqlProductCacheMetrics(@Qualifier("mysqlProductCache") ProductCache cache) {
+        return new CaffeineCacheMetrics<>(cache.getCache(), "products", Tags.of("database", "mysql"));
+    }
+
+    @Bean
+    public MeterBinder postgresProductCacheMetrics(@Qualifier("postgresProductCache") ProductCache cache) {
+        return new CaffeineCacheMetrics<>(cache.getCache(), "products", Tags.of("database", "postgresql"));
+    }
+
+    @Bean
+    public ChangeVersion mysqlChangeVersion() {
+        return new ChangeVersion("m");
+    }
+
+    @Bean
+    public ChangeVersion postgresChangeVersion() {
+        return new ChangeVersion("p");
+    }
+
+    // Caffeine evicts by W-TinyLFU once the size bound is reached; recordStats feeds the cache.* meters
+    private static ProductCache productCache(ProductCacheProperties properties) {
+        return new ProductCache(Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getExpireAfterWrite()))
+                .recordStats()
+                .build(), properties.isEnabled());
+    }
+}
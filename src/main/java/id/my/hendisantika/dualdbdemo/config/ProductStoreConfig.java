@@ -0,0 +1,78 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.cache.ChangeVersion;
+import id.my.hendisantika.dualdbdemo.cache.ProductCache;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.datasource.HedgedReader;
+import id.my.hendisantika.dualdbdemo.inventory.ProductStock;
+import id.my.hendisantika.dualdbdemo.inventory.ReservationCombiner;
+import id.my.hendisantika.dualdbdemo.outbox.ProductOutbox;
+import id.my.hendisantika.dualdbdemo.replication.ProductReplicaStore;
+import id.my.hendisantika.dualdbdemo.search.ProductSearchIndex;
+import id.my.hendisantika.dualdbdemo.service.ProductStore;
+import id.my.hendisantika.dualdbdemo.writebehind.WriteBehindQueue;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class ProductStoreConfig {
+
+    @Bean
+    public ProductStore mysqlProductStore(@Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager,
+                                          @Qualifier("mysqlJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                          @Qualifier("mysqlHedgedReader") HedgedReader hedgedReader,
+                                          @Qualifier("mysqlChangeVersion") ChangeVersion changeVersion,
+                                          @Qualifier("mysqlProductCache") ProductCache cache,
+                                          ProductSearchIndex searchIndex,
+                                          @Qualifier("mysqlWriteBehindQueue") WriteBehindQueue writeBehindQueue,
+                                          @Qualifier("mysqlProductOutbox") ProductOutbox outbox,
+                                          @Qualifier("mysqlReplicaStore") ProductReplicaStore replicaStore,
+                                          @Qualifier("mysqlProductStock") ProductStock stock,
+                                          @Qualifier("mysqlReservationCombiner") ReservationCombiner reservationCombiner) {
+        return ProductStore.builder()
+                .vendor(DatabaseVendor.MYSQL)
+                .transactionManager(transactionManager)
+                .jdbcTemplate(jdbcTemplate)
+                .hedgedReader(hedgedReader)
+                .changeVersion(changeVersion)
+                .cache(cache)
+                .searchIndex(searchIndex)
+                .writeBehindQueue(writeBehindQueue)
+                .outbox(outbox)
+                .replicaStore(replicaStore)
+                .stock(stock)
+                .reservationCombiner(reservationCombiner)
+                .build();
+    }
+
+    @Bean
+    public ProductStore postgresProductStore(@Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager,
+                                             @Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                             @Qualifier("postgresHedgedReader") HedgedReader hedgedReader,
+                                             @Qualifier("postgresChangeVersion") ChangeVersion changeVersion,
+                                             @Qualifier("postgresProductCache") ProductCache cache,
+                                             ProductSearchIndex searchIndex,
+                                             @Qualifier("postgresWriteBehindQueue") WriteBehindQueue writeBehindQueue,
+                                             @Qualifier("postgresProductOutbox") ProductOutbox outbox,
+                                             @Qualifier("postgresReplicaStore") ProductReplicaStore replicaStore,
+                                             @Qualifier("postgresProductStock") ProductStock stock,
+                                             @Qualifier("postgresReservationCombiner") ReservationCombiner reservationCombiner) {
+        return ProductStore.builder()
+                .vendor(DatabaseVendor.POSTGRESQL)
+                .transactionManager(transactionManager)
+                .jdbcTemplate(jdbcTemplate)
+                .hedgedReader(hedgedReader)
+                .changeVersion(changeVersion)
+                .cache(cache)
+                .searchIndex(searchIndex)
+                .writeBehindQueue(writeBehindQueue)
+                .outbox(outbox)
+                .replicaStore(replicaStore)
+                .stock(stock)
+                .reservationCombiner(reservationCombiner)
+                .build();
+    }
+}
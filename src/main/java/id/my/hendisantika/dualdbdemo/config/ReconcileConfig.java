@@ -0,0 +1,27 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.properties.ReconcileProperties;
+import id.my.hendisantika.dualdbdemo.reconcile.ProductTableDigest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(ReconcileProperties.class)
+public class ReconcileConfig {
+
+    @Bean
+    public ProductTableDigest mysqlProductDigest(@Qualifier("mysqlJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                                 @Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager) {
+        return ProductTableDigest.mysql(jdbcTemplate, transactionManager);
+    }
+
+    @Bean
+    public ProductTableDigest postgresProductDigest(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                                    @Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager) {
+        return ProductTableDigest.postgresql(jdbcTemplate, transactionManager);
+    }
+}
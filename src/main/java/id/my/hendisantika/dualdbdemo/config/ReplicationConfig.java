@@ -0,0 +1,32 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.ReplicationProperties;
+import id.my.hendisantika.dualdbdemo.replication.ProductReplicaStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationConfig {
+
+    @Bean
+    public ProductReplicaStore mysqlReplicaStore(@Qualifier("mysqlJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                                 @Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager,
+                                                 ReplicationProperties properties) {
+        return new ProductReplicaStore(DatabaseVendor.MYSQL, jdbcTemplate, transactionManager,
+                properties.isEnabled() && properties.getOrigins().contains(DatabaseVendor.MYSQL));
+    }
+
+    @Bean
+    public ProductReplicaStore postgresReplicaStore(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                                    @Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager,
+                                                    ReplicationProperties properties) {
+        return new ProductReplicaStore(DatabaseVendor.POSTGRESQL, jdbcTemplate, transactionManager,
+                properties.isEnabled() && properties.getOrigins().contains(DatabaseVendor.POSTGRESQL));
+    }
+}
@@ -0,0 +1,32 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.SearchProperties;
+import id.my.hendisantika.dualdbdemo.repository.mysql.MysqlProductRepository;
+import id.my.hendisantika.dualdbdemo.repository.postgresql.PostgresProductRepository;
+import id.my.hendisantika.dualdbdemo.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfig {
+
+    @Bean
+    public ProductSearchIndex productSearchIndex(SearchProperties properties,
+                                                 @Qualifier("productFanOutExecutor") ExecutorService executor,
+                                                 MysqlProductRepository mysqlProductRepository,
+                                                 PostgresProductRepository postgresProductRepository,
+                                                 @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTransactionManager,
+                                                 @Qualifier("postgresTransactionManager") PlatformTransactionManager postgresTransactionManager) {
+        ProductSearchIndex index = new ProductSearchIndex(properties.getInMemory(), executor);
+        index.register(DatabaseVendor.MYSQL, mysqlTransactionManager, mysqlProductRepository::streamAll);
+        index.register(DatabaseVendor.POSTGRESQL, postgresTransactionManager, postgresProductRepository::streamAll);
+        return index;
+    }
+}
@@ -0,0 +1,28 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.SyncProperties;
+import id.my.hendisantika.dualdbdemo.outbox.ProductOutbox;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(SyncProperties.class)
+public class SyncConfig {
+
+    @Bean
+    public ProductOutbox mysqlProductOutbox(@Qualifier("mysqlJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                            @Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager) {
+        return new ProductOutbox(DatabaseVendor.MYSQL, jdbcTemplate, transactionManager);
+    }
+
+    @Bean
+    public ProductOutbox postgresProductOutbox(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                               @Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager) {
+        return new ProductOutbox(DatabaseVendor.POSTGRESQL, jdbcTemplate, transactionManager);
+    }
+}
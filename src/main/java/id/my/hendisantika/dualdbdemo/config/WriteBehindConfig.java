@@ -0,0 +1,61 @@
+package id.my.hendisantika.dualdbdemo.config;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.WriteBehindProperties;
+import id.my.hendisantika.dualdbdemo.writebehind.WriteBehindQueue;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+
+    // Flushed when the context stops, before any bean is destroyed, so the last flush still has its JDBC
+    // template, transaction manager and event listeners
+    @Bean
+    public WriteBehindQueue mysqlWriteBehindQueue(@Qualifier("mysqlJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                                  @Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager,
+                                                  WriteBehindProperties properties,
+                                                  ApplicationEventPublisher eventPublisher) {
+        return new WriteBehindQueue(DatabaseVendor.MYSQL, jdbcTemplate, transactionManager, properties, eventPublisher);
+    }
+
+    @Bean
+    public WriteBehindQueue postgresWriteBehindQueue(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                                     @Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager,
+                                                     WriteBehindProperties properties,
+                                                     ApplicationEventPublisher eventPublisher) {
+        return new WriteBehindQueue(DatabaseVendor.POSTGRESQL, jdbcTemplate, transactionManager, properties,
+                eventPublisher);
+    }
+
+    @Bean
+    public MeterBinder writeBehindMetrics(@Qualifier("mysqlWriteBehindQueue") WriteBehindQueue mysqlWriteBehindQueue,
+                                          @Qualifier("postgresWriteBehindQueue") WriteBehindQueue postgresWriteBehindQueue) {
+        return registry -> {
+            Gauge.builder("product.writebehind.pending", mysqlWriteBehindQueue, WriteBehindQueue::size)
+                    .tag("database", "mysql")
+                    .register(registry);
+            Gauge.builder("product.writebehind.pending", postgresWriteBehindQueue, WriteBehindQueue::size)
+                    .tag("database", "postgresql")
+                    .register(registry);
+            FunctionCounter.builder("product.writebehind.dropped", mysqlWriteBehindQueue, WriteBehindQueue::getDropped)
+                    .description("Queued updates the database refused")
+                    .tag("database", "mysql")
+                    .register(registry);
+            FunctionCounter.builder("product.writebehind.dropped", postgresWriteBehindQueue,
+                            WriteBehindQueue::getDropped)
+                    .description("Queued updates the database refused")
+                    .tag("database", "postgresql")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking per-host circuit breaker. An open breaker rejects callers immediately; once the
+ * cool-down has elapsed exactly one caller wins the transition to half-open and acts as the trial.
+ * Everyone else is rejected until the trial reports {@link #onSuccess()} or {@link #onFailure()}, so
+ * every path out of a trial must report one of them.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAtMillis;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Returns {@code true} if the caller may use the host. Never blocks.
+     */
+    public boolean tryAcquirePermission() {
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case OPEN -> System.currentTimeMillis() - openedAtMillis >= openDurationMillis
+                    && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+            case HALF_OPEN -> false;
+        };
+    }
+
+    public void onSuccess() {
+        failures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        } else if (failures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    /**
+     * Opens the breaker regardless of the failure count, e.g. after a failed background probe.
+     */
+    public void forceOpen() {
+        State current = state.get();
+        if (current != State.OPEN) {
+            open(current);
+        }
+    }
+
+    private void open(State expected) {
+        openedAtMillis = System.currentTimeMillis();
+        state.compareAndSet(expected, State.OPEN);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getFailureCount() {
+        return failures.get();
+    }
+}
@@ -0,0 +1,113 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public enum DatabaseVendor {
+
+    /**
+     * SQLState 08S01 is covered by the class-08 prefix. Vendor codes: too many connections (1040),
+     * bad host / handshake (1042, 1043), server shutdown (1053, 1077-1079), host blocked (1129, 1130),
+     * aborted connection and network read/write errors (1152, 1158-1161) and the client-side
+     * connection errors (2002, 2003, 2006, 2013).
+     */
+    MYSQL("MySQL", Set.of(),
+            Set.of(1040, 1042, 1043, 1053, 1077, 1078, 1079, 1129, 1130, 1152, 1158, 1159, 1160, 1161,
+                    2002, 2003, 2006, 2013)) {
+        @Override
+        void applyTimeouts(Properties info, long timeoutMillis) {
+            info.setProperty("connectTimeout", String.valueOf(timeoutMillis));
+            info.setProperty("socketTimeout", String.valueOf(timeoutMillis));
+        }
+    },
+    /**
+     * PostgreSQL reports no vendor codes, only SQLStates: admin/crash shutdown (57P01, 57P02),
+     * cannot connect now (57P03), too many connections (53300) and system I/O error (58030).
+     */
+    POSTGRESQL("PostgreSQL", Set.of("57P01", "57P02", "57P03", "53300", "58030"), Set.of()) {
+        @Override
+        void applyTimeouts(Properties info, long timeoutMillis) {
+            // PgJDBC timeouts are expressed in seconds
+            String seconds = String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+            info.setProperty("connectTimeout", seconds);
+            info.setProperty("socketTimeout", seconds);
+        }
+    };
+
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+    private static final int MAX_CAUSE_DEPTH = 10;
+    private static final String POOL_TIMEOUT_MESSAGE = "Connection is not available, request timed out";
+
+    private final String displayName;
+    private final Set<String> connectionSqlStates;
+    private final Set<Integer> connectionVendorCodes;
+
+    DatabaseVendor(String displayName, Set<String> connectionSqlStates, Set<Integer> connectionVendorCodes) {
+        this.displayName = displayName;
+        this.connectionSqlStates = connectionSqlStates;
+        this.connectionVendorCodes = connectionVendorCodes;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Parses a request parameter; "postgres" is accepted for {@link #POSTGRESQL}.
+     */
+    public static DatabaseVendor from(String value) {
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        return "POSTGRES".equals(normalized) ? POSTGRESQL : valueOf(normalized);
+    }
+
+    abstract void applyTimeouts(Properties info, long timeoutMillis);
+
+    /**
+     * Connection properties for a raw driver connection that must never block longer than the given timeout.
+     */
+    public Properties probeConnectionProperties(String username, String password, long timeoutMillis) {
+        Properties info = new Properties();
+        if (username != null) {
+            info.setProperty("user", username);
+        }
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+        applyTimeouts(info, timeoutMillis);
+        return info;
+    }
+
+    /**
+     * Classifies a failure as a host/connection problem (worth failing over) by SQLState class 08 or the
+     * vendor's SQLState and error-code tables, looking through the cause chain. The exception type alone
+     * proves nothing: Hikari raises {@link SQLTransientConnectionException} when the pool is merely busy,
+     * so a pool timeout only counts through the driver failure it carries as its cause, if any.
+     */
+    public boolean isConnectionError(SQLException e) {
+        Throwable current = e;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            // A pool timeout copies the SQLState of the last failed connect; judge that failure itself instead
+            if (current instanceof SQLException sqlException && !isPoolTimeout(sqlException)) {
+                String sqlState = sqlException.getSQLState();
+                if (sqlState != null && (sqlState.startsWith(CONNECTION_EXCEPTION_CLASS)
+                        || connectionSqlStates.contains(sqlState))) {
+                    return true;
+                }
+                if (connectionVendorCodes.contains(sqlException.getErrorCode())) {
+                    return true;
+                }
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    private static boolean isPoolTimeout(SQLException e) {
+        return e instanceof SQLTransientConnectionException
+                && e.getMessage() != null && e.getMessage().contains(POOL_TIMEOUT_MESSAGE);
+    }
+}
@@ -0,0 +1,594 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import id.my.hendisantika.dualdbdemo.config.properties.DatabaseHost;
+import id.my.hendisantika.dualdbdemo.config.properties.FailoverProperties;
+import id.my.hendisantika.dualdbdemo.config.properties.HikariPoolProperties;
+import id.my.hendisantika.dualdbdemo.config.properties.ReadRoutingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Failover-aware DataSource that switches between hosts on connection failure.
+ * <p>
+ * With {@code failover.warm-standby=true} a pool is kept open for every configured host at
+ * {@code failover.standby-minimum-idle}, so a switch only promotes an already connected pool.
+ */
+public class FailoverDataSource implements DataSource, MeterBinder, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FailoverDataSource.class);
+
+    private static final long DRAIN_POLL_MILLIS = 100;
+
+    private final DatabaseVendor vendor;
+    private final List<DatabaseHost> hosts;
+    private final FailoverProperties failover;
+    private final HikariPoolProperties pool;
+    private final Function<DatabaseHost, HikariConfig> configFactory;
+    private final AtomicReferenceArray<HikariDataSource> pools;
+    private final List<CircuitBreaker> breakers;
+    private final AtomicReference<ActiveHost> active;
+    private final Set<HikariDataSource> drainingPools = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService poolDrainer;
+    private final HostProbeEngine probeEngine;
+    private final ReplicaBalancer balancer;
+    private volatile Meters meters;
+
+    public FailoverDataSource(DatabaseVendor vendor, List<DatabaseHost> hosts, FailoverProperties failover,
+                              HikariPoolProperties pool, ReadRoutingProperties readRouting,
+                              Function<DatabaseHost, HikariConfig> configFactory,
+                              ScheduledExecutorService probeScheduler) {
+        this.vendor = vendor;
+        this.hosts = List.copyOf(hosts);
+        this.failover = failover;
+        this.pool = pool;
+        this.configFactory = configFactory;
+        this.pools = new AtomicReferenceArray<>(hosts.size());
+        this.breakers = this.hosts.stream()
+                .map(host -> new CircuitBreaker(failover.getCircuitFailureThreshold(), failover.getRetryDelay()))
+                .toList();
+
+        if (failover.isWarmStandby()) {
+            for (int i = 0; i < hosts.size(); i++) {
+                pools.set(i, createPool(i, i != 0));
+            }
+        } else {
+            pools.set(0, createPool(0, false));
+        }
+        this.active = new AtomicReference<>(new ActiveHost(0, 0, pools.get(0)));
+
+        this.poolDrainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, vendor.getDisplayName() + "-PoolDrainer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.probeEngine = new HostProbeEngine(vendor, this.hosts, failover, configFactory, probeScheduler);
+        this.balancer = new ReplicaBalancer(readRouting.getBalancer(), probeEngine.getStats(),
+                this::getOutstandingConnections);
+        probeEngine.start(this::onProbe);
+    }
+
+    private HikariDataSource createPool(int index, boolean standby) {
+        HikariConfig config = configFactory.apply(hosts.get(index));
+        if (failover.isWarmStandby()) {
+            // Standby hosts may be down at startup; let the pool come up empty and fill in the background
+            config.setInitializationFailTimeout(-1);
+            config.setKeepaliveTime(failover.getStandbyKeepaliveTime());
+            if (standby) {
+                config.setMinimumIdle(Math.min(failover.getStandbyMinimumIdle(), pool.getMaximumPoolSize()));
+            }
+        }
+        Meters current = meters;
+        if (current != null) {
+            config.setMetricRegistry(current.registry());
+        }
+        return new HikariDataSource(config);
+    }
+
+    private void onProbe(HostStats stats) {
+        CircuitBreaker breaker = breakers.get(stats.getIndex());
+        if (!stats.isHealthy()) {
+            breaker.forceOpen();
+            return;
+        }
+        if (breaker.getState() != CircuitBreaker.State.CLOSED) {
+            // Also settles a half-open trial that never reported back
+            breaker.onSuccess();
+        }
+
+        // If we're not on primary, switch back as soon as the primary probes healthy again
+        ActiveHost current = active.get();
+        if (stats.getIndex() == 0 && current.index() != 0) {
+            DatabaseHost primaryHost = stats.getHost();
+            log.info("{} primary host {}:{} is back online, switching back",
+                    vendor.getDisplayName(), primaryHost.getHost(), primaryHost.getPort());
+            switchToHost(current, 0);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnectionWithFailover();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnectionWithFailover();
+    }
+
+    /**
+     * Walks the hosts starting at the active one. Hosts whose breaker is open are skipped without
+     * touching the network, and no caller ever sleeps: the breaker cool-down ({@code failover.retry-delay})
+     * replaces the old sleep-and-retry, with a single half-open trial deciding when a host is usable again.
+     */
+    private Connection getConnectionWithFailover() throws SQLException {
+        ActiveHost current = active.get();
+        int startIndex = current.index();
+        int attempts = 0;
+        SQLException lastException = null;
+
+        for (int offset = 0; offset < hosts.size() && attempts <= failover.getMaxRetries(); offset++) {
+            int index = (startIndex + offset) % hosts.size();
+            CircuitBreaker breaker = breakers.get(index);
+            if (!breaker.tryAcquirePermission()) {
+                continue;
+            }
+            if (attempts++ > 0) {
+                increment(Meters::retries);
+            }
+
+            long start = System.nanoTime();
+            Connection conn = null;
+            boolean resolved = false;
+            try {
+                conn = borrow(index);
+                if (conn.isValid(5)) {
+                    recordAcquire(index, start, true);
+                    breaker.onSuccess();
+                    resolved = true;
+                    if (index != startIndex) {
+                        switchToHost(current, index);
+                    }
+                    Connection valid = conn;
+                    conn = null;
+                    return valid;
+                }
+                recordAcquire(index, start, false);
+                lastException = new SQLTransientConnectionException("Connection validation failed", "08006");
+            } catch (SQLException e) {
+                recordAcquire(index, start, false);
+                if (!vendor.isConnectionError(e)) {
+                    breaker.onSuccess();
+                    resolved = true;
+                    throw e;
+                }
+                lastException = e;
+                DatabaseHost host = hosts.get(index);
+                log.warn("{} connection to {}:{} failed (attempt {}): {}", vendor.getDisplayName(),
+                        host.getHost(), host.getPort(), attempts, e.getMessage());
+            } finally {
+                // Every way out other than success, including runtime failures, settles a half-open trial
+                if (!resolved) {
+                    breaker.onFailure();
+                }
+                closeQuietly(conn);
+            }
+        }
+
+        if (lastException == null) {
+            throw new SQLTransientConnectionException("All " + vendor.getDisplayName()
+                    + " hosts are unavailable (circuit open)", "08001");
+        }
+        log.error("{} connection failed after {} attempts", vendor.getDisplayName(), attempts);
+        throw lastException;
+    }
+
+    /**
+     * Returns a connection to a healthy secondary (any host other than the active one) chosen by the
+     * {@link ReplicaBalancer}, falling back to the active host when no secondary is usable.
+     */
+    public Connection getReadConnection() throws SQLException {
+        for (int index : balancer.rank(readCandidates())) {
+            CircuitBreaker breaker = breakers.get(index);
+            if (!breaker.tryAcquirePermission()) {
+                continue;
+            }
+            long start = System.nanoTime();
+            boolean resolved = false;
+            try {
+                Connection conn = borrow(index);
+                recordAcquire(index, start, true);
+                breaker.onSuccess();
+                resolved = true;
+                return conn;
+            } catch (SQLException e) {
+                recordAcquire(index, start, false);
+                if (!vendor.isConnectionError(e)) {
+                    breaker.onSuccess();
+                    resolved = true;
+                    throw e;
+                }
+                DatabaseHost host = hosts.get(index);
+                log.warn("{} read connection to {}:{} failed, falling back: {}", vendor.getDisplayName(),
+                        host.getHost(), host.getPort(), e.getMessage());
+            } finally {
+                if (!resolved) {
+                    breaker.onFailure();
+                }
+            }
+        }
+
+        return getConnectionWithFailover();
+    }
+
+    /**
+     * Every healthy host, including the active one, ordered by the {@link ReplicaBalancer}.
+     */
+    public List<Integer> rankHealthyHosts() {
+        List<Integer> candidates = new ArrayList<>(hosts.size());
+        for (int index = 0; index < hosts.size(); index++) {
+            if (probeEngine.getStats(index).isHealthy()
+                    && breakers.get(index).getState() != CircuitBreaker.State.OPEN) {
+                candidates.add(index);
+            }
+        }
+        return balancer.rank(candidates);
+    }
+
+    /**
+     * Borrows a connection from one specific host without failing over, e.g. for hedged reads.
+     */
+    public Connection getConnection(int index) throws SQLException {
+        CircuitBreaker breaker = breakers.get(index);
+        if (!breaker.tryAcquirePermission()) {
+            DatabaseHost host = hosts.get(index);
+            throw new SQLTransientConnectionException(vendor.getDisplayName() + " host " + host.getHost() + ":"
+                    + host.getPort() + " is unavailable (circuit open)", "08001");
+        }
+        long start = System.nanoTime();
+        boolean resolved = false;
+        try {
+            Connection conn = borrow(index);
+            recordAcquire(index, start, true);
+            breaker.onSuccess();
+            resolved = true;
+            return conn;
+        } catch (SQLException e) {
+            recordAcquire(index, start, false);
+            if (!vendor.isConnectionError(e)) {
+                // The host answered; the failure is not its fault
+                breaker.onSuccess();
+                resolved = true;
+            }
+            throw e;
+        } finally {
+            if (!resolved) {
+                breaker.onFailure();
+            }
+        }
+    }
+
+    private List<Integer> readCandidates() {
+        int activeIndex = active.get().index();
+        List<Integer> candidates = new ArrayList<>(hosts.size() - 1);
+        for (int index = 0; index < hosts.size(); index++) {
+            if (index != activeIndex && probeEngine.getStats(index).isHealthy()) {
+                candidates.add(index);
+            }
+        }
+        return candidates;
+    }
+
+    private void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                log.debug("Error closing rejected {} connection: {}", vendor.getDisplayName(), e.getMessage());
+            }
+        }
+    }
+
+    private Connection borrow(int index) throws SQLException {
+        long start = System.nanoTime();
+        Connection conn = poolFor(index).getConnection();
+        probeEngine.getStats(index).recordAcquire(System.nanoTime() - start);
+        return conn;
+    }
+
+    /**
+     * Connections currently borrowed from, or awaited on, the pool of the given host.
+     */
+    public int getOutstandingConnections(int index) {
+        HikariDataSource dataSource = pools.get(index);
+        HikariPoolMXBean poolMXBean = dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+        return poolMXBean == null ? 0 : poolMXBean.getActiveConnections() + poolMXBean.getThreadsAwaitingConnection();
+    }
+
+    private HikariDataSource poolFor(int index) throws SQLException {
+        HikariDataSource dataSource = pools.get(index);
+        if (dataSource != null) {
+            return dataSource;
+        }
+        try {
+            dataSource = createPool(index, false);
+        } catch (RuntimeException e) {
+            throw new SQLTransientConnectionException("Unable to create pool for "
+                    + hosts.get(index).getHost() + ":" + hosts.get(index).getPort(), "08001", e);
+        }
+        if (pools.compareAndSet(index, null, dataSource)) {
+            return dataSource;
+        }
+        // Another caller created the pool first
+        dataSource.close();
+        return poolFor(index);
+    }
+
+    /**
+     * Promotes {@code index} to the active host if the active host is still {@code expected}. The swap is a
+     * single compare-and-set, so concurrent callers that observed the same failure never serialize: one
+     * wins and the others simply use the winner's host.
+     */
+    private void switchToHost(ActiveHost expected, int index) {
+        if (expected.index() == index || active.get() != expected) {
+            return;
+        }
+        DatabaseHost nextHost = hosts.get(index);
+        HikariDataSource nextDataSource;
+        try {
+            nextDataSource = poolFor(index);
+        } catch (SQLException e) {
+            log.warn("{} unable to switch to host {}:{}: {}", vendor.getDisplayName(),
+                    nextHost.getHost(), nextHost.getPort(), e.getMessage());
+            return;
+        }
+
+        ActiveHost next = new ActiveHost(index, expected.epoch() + 1, nextDataSource);
+        if (!active.compareAndSet(expected, next)) {
+            return;
+        }
+        log.info("{} switching to host: {}:{} (epoch {})", vendor.getDisplayName(),
+                nextHost.getHost(), nextHost.getPort(), next.epoch());
+        nextDataSource.getHikariConfigMXBean().setMinimumIdle(pool.getMinimumIdle());
+        increment(index == 0 ? Meters::failbacks : Meters::failovers);
+        demote(expected);
+    }
+
+    /**
+     * Stops the old pool from lending new connections and hands it to the drainer, which waits for the
+     * connections still borrowed by in-flight transactions to be returned (up to {@code failover.drain-timeout})
+     * before shrinking the pool back to standby size or closing it.
+     */
+    private void demote(ActiveHost previous) {
+        HikariDataSource dataSource = previous.dataSource();
+        if (!failover.isWarmStandby()) {
+            pools.compareAndSet(previous.index(), dataSource, null);
+            drainingPools.add(dataSource);
+        }
+        long deadline = System.currentTimeMillis() + failover.getDrainTimeout();
+        poolDrainer.execute(() -> drain(previous, deadline));
+    }
+
+    private void drain(ActiveHost previous, long deadline) {
+        HikariDataSource dataSource = previous.dataSource();
+        HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+        int inFlight = poolMXBean == null ? 0 : poolMXBean.getActiveConnections();
+        if (inFlight > 0 && System.currentTimeMillis() < deadline) {
+            poolDrainer.schedule(() -> drain(previous, deadline), DRAIN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (inFlight > 0) {
+            log.warn("{} pool from epoch {} still has {} connections in use after the drain timeout",
+                    vendor.getDisplayName(), previous.epoch(), inFlight);
+        }
+
+        try {
+            if (failover.isWarmStandby()) {
+                if (active.get().dataSource() != dataSource) {
+                    dataSource.getHikariConfigMXBean().setMinimumIdle(
+                            Math.min(failover.getStandbyMinimumIdle(), pool.getMaximumPoolSize()));
+                    poolMXBean.softEvictConnections();
+                }
+            } else {
+                drainingPools.remove(dataSource);
+                dataSource.close();
+            }
+        } catch (Exception e) {
+            log.warn("Error demoting old {} datasource: {}", vendor.getDisplayName(), e.getMessage());
+        }
+    }
+
+    public int getActiveHostIndex() {
+        return active.get().index();
+    }
+
+    /**
+     * Incremented on every switch of the active host.
+     */
+    public long getEpoch() {
+        return active.get().epoch();
+    }
+
+    public List<DatabaseHost> getHosts() {
+        return hosts;
+    }
+
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return breakers;
+    }
+
+    /**
+     * Latest probe results for every configured host, indexed like {@link #getHosts()}.
+     */
+    public List<HostStats> getHostStats() {
+        return probeEngine.getStats();
+    }
+
+    @Override
+    public void close() {
+        probeEngine.close();
+        poolDrainer.shutdownNow();
+        for (int i = 0; i < pools.length(); i++) {
+            HikariDataSource dataSource = pools.getAndSet(i, null);
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+        drainingPools.forEach(HikariDataSource::close);
+        drainingPools.clear();
+    }
+
+    /**
+     * Registers acquisition timers per host, failover/failback/retry counters and gauges for the active host,
+     * epoch, circuit state and probe latency, all tagged with {@code db}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String db = vendor.name().toLowerCase(Locale.ROOT);
+        List<Timer> acquireSuccess = new ArrayList<>(hosts.size());
+        List<Timer> acquireFailure = new ArrayList<>(hosts.size());
+
+        for (int i = 0; i < hosts.size(); i++) {
+            String host = hosts.get(i).getHost() + ":" + hosts.get(i).getPort();
+            acquireSuccess.add(acquireTimer(registry, db, host, "success"));
+            acquireFailure.add(acquireTimer(registry, db, host, "failure"));
+            Gauge.builder("datasource.circuit.state", breakers.get(i), breaker -> breaker.getState().ordinal())
+                    .description("Circuit breaker state (0 closed, 1 open, 2 half-open)")
+                    .tags("db", db, "host", host)
+                    .register(registry);
+            Gauge.builder("datasource.probe.latency", probeEngine.getStats(i),
+                            stats -> Math.max(0, stats.getEwmaLatencyNanos()) / 1_000_000)
+                    .description("EWMA of host probe round-trip time")
+                    .baseUnit("milliseconds")
+                    .tags("db", db, "host", host)
+                    .register(registry);
+        }
+
+        Gauge.builder("datasource.active.host", this, FailoverDataSource::getActiveHostIndex)
+                .description("Index of the host currently receiving writes")
+                .tag("db", db)
+                .register(registry);
+        Gauge.builder("datasource.epoch", this, FailoverDataSource::getEpoch)
+                .description("Number of active host switches")
+                .tag("db", db)
+                .register(registry);
+
+        this.meters = new Meters(registry, acquireSuccess, acquireFailure,
+                Counter.builder("datasource.failover").description("Switches away from the primary host")
+                        .tag("db", db).register(registry),
+                Counter.builder("datasource.failback").description("Switches back to the primary host")
+                        .tag("db", db).register(registry),
+                Counter.builder("datasource.retry").description("Connection attempts beyond the first")
+                        .tag("db", db).register(registry));
+
+        // Pools are not beans, so Boot's pool metrics never see them; attach Hikari's own tracker instead
+        for (int i = 0; i < pools.length(); i++) {
+            HikariDataSource existing = pools.get(i);
+            if (existing != null) {
+                try {
+                    existing.setMetricRegistry(registry);
+                } catch (IllegalStateException e) {
+                    log.debug("{} pool {} already has a metric registry", vendor.getDisplayName(),
+                            existing.getPoolName());
+                }
+            }
+        }
+    }
+
+    private static Timer acquireTimer(MeterRegistry registry, String db, String host, String outcome) {
+        return Timer.builder("datasource.connection.acquire")
+                .description("Time to borrow (and validate) a connection")
+                .tags("db", db, "host", host, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private void recordAcquire(int index, long startNanos, boolean success) {
+        Meters current = meters;
+        if (current != null) {
+            (success ? current.acquireSuccess() : current.acquireFailure()).get(index)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void increment(Function<Meters, Counter> counter) {
+        Meters current = meters;
+        if (current != null) {
+            counter.apply(current).increment();
+        }
+    }
+
+    private HikariDataSource currentDataSource() {
+        return active.get().dataSource();
+    }
+
+    @Override
+    public java.io.PrintWriter getLogWriter() throws SQLException {
+        return currentDataSource().getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(java.io.PrintWriter out) throws SQLException {
+        currentDataSource().setLogWriter(out);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return currentDataSource().getLoginTimeout();
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        currentDataSource().setLoginTimeout(seconds);
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws java.sql.SQLFeatureNotSupportedException {
+        return currentDataSource().getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return currentDataSource().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || currentDataSource().isWrapperFor(iface);
+    }
+
+    private record ActiveHost(int index, long epoch, HikariDataSource dataSource) {
+    }
+
+    private record Meters(MeterRegistry registry, List<Timer> acquireSuccess, List<Timer> acquireFailure,
+                          Counter failovers, Counter failbacks, Counter retries) {
+    }
+}
@@ -0,0 +1,122 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import id.my.hendisantika.dualdbdemo.config.properties.DatabaseHost;
+import id.my.hendisantika.dualdbdemo.config.properties.FailoverProperties;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports database health from the results the {@link HostProbeEngine} already collects in the
+ * background, so an actuator scrape never borrows a connection or runs a query.
+ * <p>
+ * UP while the active host is healthy and its circuit is not open, DOWN when no host is healthy,
+ * otherwise OUT_OF_SERVICE. Single-host setups without failover only report pool state.
+ */
+public class FailoverHealthIndicator implements HealthIndicator {
+
+    private static final int STALE_AFTER_INTERVALS = 3;
+
+    private final DatabaseVendor vendor;
+    private final FailoverDataSource failoverDataSource;
+    private final HikariDataSource hikariDataSource;
+    private final long staleAfterMillis;
+
+    public FailoverHealthIndicator(DatabaseVendor vendor, DataSource dataSource, FailoverProperties failover)
+            throws SQLException {
+        this.vendor = vendor;
+        this.failoverDataSource = dataSource.isWrapperFor(FailoverDataSource.class)
+                ? dataSource.unwrap(FailoverDataSource.class) : null;
+        this.hikariDataSource = failoverDataSource == null && dataSource.isWrapperFor(HikariDataSource.class)
+                ? dataSource.unwrap(HikariDataSource.class) : null;
+        this.staleAfterMillis = failover.getHealthCheckInterval() * STALE_AFTER_INTERVALS;
+    }
+
+    @Override
+    public Health health() {
+        if (failoverDataSource != null) {
+            return failoverHealth();
+        }
+        return poolHealth();
+    }
+
+    private Health failoverHealth() {
+        int activeIndex = failoverDataSource.getActiveHostIndex();
+        List<HostStats> stats = failoverDataSource.getHostStats();
+        List<CircuitBreaker> breakers = failoverDataSource.getCircuitBreakers();
+        long now = System.currentTimeMillis();
+
+        List<Map<String, Object>> hosts = new ArrayList<>(stats.size());
+        boolean anyHealthy = false;
+        for (HostStats hostStats : stats) {
+            CircuitBreaker.State state = breakers.get(hostStats.getIndex()).getState();
+            anyHealthy |= hostStats.isHealthy() && state != CircuitBreaker.State.OPEN;
+            hosts.add(hostDetails(hostStats, state, hostStats.getIndex() == activeIndex, now));
+        }
+
+        HostStats activeStats = stats.get(activeIndex);
+        boolean activeUsable = activeStats.isHealthy()
+                && breakers.get(activeIndex).getState() != CircuitBreaker.State.OPEN;
+        Health.Builder builder = activeUsable ? Health.up() : anyHealthy ? Health.outOfService() : Health.down();
+
+        DatabaseHost activeHost = activeStats.getHost();
+        return builder
+                .withDetail("database", vendor.getDisplayName())
+                .withDetail("activeHost", activeHost.getHost() + ":" + activeHost.getPort())
+                .withDetail("activeHostIndex", activeIndex)
+                .withDetail("epoch", failoverDataSource.getEpoch())
+                .withDetail("hosts", hosts)
+                .build();
+    }
+
+    private Map<String, Object> hostDetails(HostStats hostStats, CircuitBreaker.State state, boolean active, long now) {
+        DatabaseHost host = hostStats.getHost();
+        long lastProbeAt = hostStats.getLastProbeAtMillis();
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("host", host.getHost() + ":" + host.getPort());
+        details.put("role", hostStats.getIndex() == 0 ? "primary" : "secondary");
+        details.put("active", active);
+        details.put("circuit", state.name());
+        if (lastProbeAt == 0) {
+            details.put("probe", "PENDING");
+            return details;
+        }
+        details.put("probe", hostStats.isHealthy() ? "UP" : "DOWN");
+        details.put("lastProbeAt", Instant.ofEpochMilli(lastProbeAt).toString());
+        details.put("stale", now - lastProbeAt > staleAfterMillis);
+        if (hostStats.isHealthy()) {
+            details.put("lastLatencyMs", hostStats.getLastLatencyNanos() / 1_000_000.0);
+            details.put("avgLatencyMs", hostStats.getEwmaLatencyNanos() / 1_000_000.0);
+        } else {
+            details.put("consecutiveFailures", hostStats.getConsecutiveFailures());
+            details.put("error", hostStats.getLastError());
+        }
+        return details;
+    }
+
+    private Health poolHealth() {
+        if (hikariDataSource == null || hikariDataSource.isClosed()) {
+            return Health.down().withDetail("database", vendor.getDisplayName()).build();
+        }
+        Health.Builder builder = Health.up()
+                .withDetail("database", vendor.getDisplayName())
+                .withDetail("pool", hikariDataSource.getPoolName());
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            builder.withDetail("activeConnections", pool.getActiveConnections())
+                    .withDetail("idleConnections", pool.getIdleConnections())
+                    .withDetail("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,223 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import id.my.hendisantika.dualdbdemo.config.properties.HedgeProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Runs single-row reads against the best healthy host and, if it has not answered within the
+ * configured percentile of that host's recent query latency, sends the same read to the next host.
+ * The first answer wins and the loser is cancelled with {@link Statement#cancel()}.
+ * <p>
+ * Hedges, and retries of reads whose host could not be reached, are paid for from a token budget that earns
+ * {@code budget-ratio} tokens per read, so they can never add more than that fraction of extra load.
+ */
+public class HedgedReader implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgedReader.class);
+
+    private static final long TOKEN = 1_000_000;
+
+    private final DatabaseVendor vendor;
+    private final FailoverDataSource failoverDataSource;
+    private final HedgeProperties properties;
+    private final List<HostStats> queryLatency;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SQLExceptionTranslator exceptionTranslator = new SQLExceptionSubclassTranslator();
+    private final AtomicLong budget = new AtomicLong();
+
+    public HedgedReader(DatabaseVendor vendor, DataSource dataSource, HedgeProperties properties) throws SQLException {
+        this.vendor = vendor;
+        this.failoverDataSource = dataSource.isWrapperFor(FailoverDataSource.class)
+                ? dataSource.unwrap(FailoverDataSource.class) : null;
+        this.properties = properties;
+        this.queryLatency = failoverDataSource == null ? List.of()
+                : IntStream.range(0, failoverDataSource.getHosts().size())
+                .mapToObj(i -> new HostStats(i, failoverDataSource.getHosts().get(i)))
+                .toList();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && failoverDataSource != null && failoverDataSource.getHosts().size() > 1;
+    }
+
+    /**
+     * Runs a query expected to return at most one row.
+     */
+    public <T> Optional<T> queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+        depositBudget();
+        List<Integer> hosts = failoverDataSource.rankHealthyHosts();
+        if (hosts.isEmpty()) {
+            hosts = List.of(failoverDataSource.getActiveHostIndex());
+        }
+
+        Attempt<T> first = new Attempt<>(hosts.getFirst(), sql, rowMapper, args);
+        try {
+            return first.future.get(hedgeDelayNanos(first.hostIndex), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (hosts.size() < 2 || !tryConsumeBudget()) {
+                return await(first.future, sql);
+            }
+            log.debug("{} hedging read on host {} after slow host {}", vendor.getDisplayName(), hosts.get(1),
+                    first.hostIndex);
+            Attempt<T> hedge = new Attempt<>(hosts.get(1), sql, rowMapper, args);
+            try {
+                return await(firstSuccessful(first.future, hedge.future), sql);
+            } finally {
+                first.cancelIfRunning();
+                hedge.cancelIfRunning();
+            }
+        } catch (ExecutionException e) {
+            // Only a host that could not be reached is worth a retry on the next one, paid for like a hedge;
+            // a failing query would fail there too
+            if (hosts.size() < 2 || !isConnectionFailure(e.getCause()) || !tryConsumeBudget()) {
+                throw translate(e.getCause(), sql);
+            }
+            log.debug("{} retrying read on host {} after host {} failed: {}", vendor.getDisplayName(), hosts.get(1),
+                    first.hostIndex, e.getCause().getMessage());
+            return await(new Attempt<>(hosts.get(1), sql, rowMapper, args).future, sql);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            first.cancelIfRunning();
+            throw translate(e, sql);
+        }
+    }
+
+    private long hedgeDelayNanos(int hostIndex) {
+        long delay = queryLatency.get(hostIndex).latencyPercentileNanos(properties.getPercentile());
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(properties.getMinDelay()), delay);
+    }
+
+    private void depositBudget() {
+        long deposit = (long) (properties.getBudgetRatio() * TOKEN);
+        long cap = properties.getMaxBurst() * TOKEN;
+        budget.getAndUpdate(tokens -> Math.min(cap, tokens + deposit));
+    }
+
+    private boolean tryConsumeBudget() {
+        long tokens;
+        do {
+            tokens = budget.get();
+            if (tokens < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(tokens, tokens - TOKEN));
+        return true;
+    }
+
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> future : List.of(first, second)) {
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        return result;
+    }
+
+    private <T> T await(CompletableFuture<T> future, String sql) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw translate(e.getCause(), sql);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw translate(e, sql);
+        }
+    }
+
+    private boolean isConnectionFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof SQLException sqlException && vendor.isConnectionError(sqlException);
+    }
+
+    private RuntimeException translate(Throwable error, String sql) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof SQLException sqlException) {
+            RuntimeException translated = exceptionTranslator.translate("Hedged " + vendor.getDisplayName() + " read",
+                    sql, sqlException);
+            if (translated != null) {
+                return translated;
+            }
+        }
+        return cause instanceof RuntimeException runtimeException ? runtimeException
+                : new IllegalStateException("Hedged " + vendor.getDisplayName() + " read failed", cause);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private class Attempt<T> {
+
+        private final int hostIndex;
+        private final AtomicReference<Statement> statement = new AtomicReference<>();
+        private final CompletableFuture<Optional<T>> future;
+
+        Attempt(int hostIndex, String sql, RowMapper<T> rowMapper, Object[] args) {
+            this.hostIndex = hostIndex;
+            this.future = CompletableFuture.supplyAsync(() -> run(sql, rowMapper, args), executor);
+        }
+
+        private Optional<T> run(String sql, RowMapper<T> rowMapper, Object[] args) {
+            long start = System.nanoTime();
+            try (Connection conn = failoverDataSource.getConnection(hostIndex);
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                statement.set(ps);
+                for (int i = 0; i < args.length; i++) {
+                    ps.setObject(i + 1, args[i]);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    Optional<T> result = rs.next() ? Optional.ofNullable(rowMapper.mapRow(rs, 1)) : Optional.empty();
+                    queryLatency.get(hostIndex).recordSuccess(System.nanoTime() - start);
+                    return result;
+                }
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                statement.set(null);
+            }
+        }
+
+        void cancelIfRunning() {
+            Statement running = statement.get();
+            if (!future.isDone() && running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException e) {
+                    log.debug("Unable to cancel hedged {} statement: {}", vendor.getDisplayName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
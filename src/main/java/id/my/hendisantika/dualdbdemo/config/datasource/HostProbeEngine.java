@@ -0,0 +1,160 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import id.my.hendisantika.dualdbdemo.config.properties.DatabaseHost;
+import id.my.hendisantika.dualdbdemo.config.properties.FailoverProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Probes every configured host on a shared scheduler using one reusable raw driver connection
+ * per host, so health checking never creates (or leaks) a connection pool.
+ */
+public class HostProbeEngine implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(HostProbeEngine.class);
+
+    /**
+     * Callback invoked on the scheduler thread after every probe.
+     */
+    public interface ProbeListener {
+        void onProbe(HostStats stats);
+    }
+
+    private final DatabaseVendor vendor;
+    private final FailoverProperties failover;
+    private final ScheduledExecutorService scheduler;
+    private final List<HostProbe> probes = new ArrayList<>();
+    private final List<HostStats> stats = new ArrayList<>();
+    private volatile ProbeListener listener = s -> {
+    };
+    private volatile boolean closed;
+
+    public HostProbeEngine(DatabaseVendor vendor, List<DatabaseHost> hosts, FailoverProperties failover,
+                           Function<DatabaseHost, HikariConfig> configFactory, ScheduledExecutorService scheduler) {
+        this.vendor = vendor;
+        this.failover = failover;
+        this.scheduler = scheduler;
+        for (int i = 0; i < hosts.size(); i++) {
+            HostStats hostStats = new HostStats(i, hosts.get(i));
+            stats.add(hostStats);
+            probes.add(new HostProbe(hostStats, configFactory.apply(hosts.get(i))));
+        }
+    }
+
+    public void start(ProbeListener listener) {
+        this.listener = listener;
+        long interval = failover.getHealthCheckInterval();
+        for (HostProbe probe : probes) {
+            // Spread the first round over one interval so hosts are not probed in lock-step
+            probe.schedule(ThreadLocalRandom.current().nextLong(Math.max(1, interval)));
+        }
+    }
+
+    public List<HostStats> getStats() {
+        return stats;
+    }
+
+    public HostStats getStats(int index) {
+        return stats.get(index);
+    }
+
+    private long nextDelay() {
+        long interval = failover.getHealthCheckInterval();
+        long jitter = (long) (interval * failover.getProbeJitter());
+        return interval + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        probes.forEach(HostProbe::close);
+    }
+
+    private class HostProbe {
+
+        private final HostStats hostStats;
+        private final HikariConfig config;
+        private Connection connection;
+        private volatile ScheduledFuture<?> future;
+
+        HostProbe(HostStats hostStats, HikariConfig config) {
+            this.hostStats = hostStats;
+            this.config = config;
+        }
+
+        void schedule(long delayMillis) {
+            if (!closed) {
+                future = scheduler.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void run() {
+            try {
+                probe();
+                listener.onProbe(hostStats);
+            } catch (Exception e) {
+                log.warn("{} probe listener failed: {}", vendor.getDisplayName(), e.getMessage());
+            } finally {
+                schedule(nextDelay());
+            }
+        }
+
+        private synchronized void probe() {
+            DatabaseHost host = hostStats.getHost();
+            long start = System.nanoTime();
+            try {
+                if (connection == null || connection.isClosed()) {
+                    connection = DriverManager.getConnection(config.getJdbcUrl(), vendor.probeConnectionProperties(
+                            config.getUsername(), config.getPassword(), failover.getProbeTimeout()));
+                }
+                int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(failover.getProbeTimeout()));
+                if (!connection.isValid(timeoutSeconds)) {
+                    throw new SQLException("Connection validation failed");
+                }
+                hostStats.recordSuccess(System.nanoTime() - start);
+            } catch (SQLException e) {
+                if (hostStats.isHealthy()) {
+                    log.warn("{} host {}:{} failed probe: {}", vendor.getDisplayName(),
+                            host.getHost(), host.getPort(), e.getMessage());
+                } else {
+                    log.debug("{} host {}:{} still unavailable: {}", vendor.getDisplayName(),
+                            host.getHost(), host.getPort(), e.getMessage());
+                }
+                hostStats.recordFailure(e.getMessage());
+                closeConnection();
+            }
+        }
+
+        private void closeConnection() {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Error closing {} probe connection: {}", vendor.getDisplayName(), e.getMessage());
+                }
+                connection = null;
+            }
+        }
+
+        synchronized void close() {
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            closeConnection();
+        }
+    }
+}
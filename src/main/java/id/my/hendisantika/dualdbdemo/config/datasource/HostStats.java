@@ -0,0 +1,115 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import id.my.hendisantika.dualdbdemo.config.properties.DatabaseHost;
+
+import java.util.Arrays;
+
+/**
+ * Rolling probe results for a single host: an EWMA of round-trip latency plus a small ring
+ * buffer of recent samples for percentile queries.
+ */
+public class HostStats {
+
+    private static final double EWMA_ALPHA = 0.2;
+    private static final int SAMPLE_SIZE = 128;
+
+    private final int index;
+    private final DatabaseHost host;
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private int sampleCount;
+    private int nextSample;
+
+    private volatile boolean healthy = true;
+    private volatile double ewmaLatencyNanos = -1;
+    private volatile double ewmaAcquireNanos = -1;
+    private volatile long lastLatencyNanos = -1;
+    private volatile long lastProbeAtMillis;
+    private volatile int consecutiveFailures;
+    private volatile String lastError;
+
+    public HostStats(int index, DatabaseHost host) {
+        this.index = index;
+        this.host = host;
+    }
+
+    public synchronized void recordSuccess(long latencyNanos) {
+        addSample(latencyNanos);
+        lastLatencyNanos = latencyNanos;
+        lastProbeAtMillis = System.currentTimeMillis();
+        consecutiveFailures = 0;
+        lastError = null;
+        healthy = true;
+    }
+
+    public synchronized void recordFailure(String error) {
+        lastProbeAtMillis = System.currentTimeMillis();
+        consecutiveFailures++;
+        lastError = error;
+        healthy = false;
+    }
+
+    /**
+     * Records how long a caller waited to borrow a pooled connection for this host.
+     */
+    public synchronized void recordAcquire(long waitNanos) {
+        ewmaAcquireNanos = ewmaAcquireNanos < 0 ? waitNanos
+                : EWMA_ALPHA * waitNanos + (1 - EWMA_ALPHA) * ewmaAcquireNanos;
+    }
+
+    private void addSample(long latencyNanos) {
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % SAMPLE_SIZE;
+        sampleCount = Math.min(sampleCount + 1, SAMPLE_SIZE);
+        ewmaLatencyNanos = ewmaLatencyNanos < 0 ? latencyNanos
+                : EWMA_ALPHA * latencyNanos + (1 - EWMA_ALPHA) * ewmaLatencyNanos;
+    }
+
+    /**
+     * Returns the given percentile (0-100) of recent latency samples, or -1 when none were recorded.
+     */
+    public synchronized long latencyPercentileNanos(double percentile) {
+        if (sampleCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sampleCount) - 1;
+        return sorted[Math.max(0, Math.min(rank, sampleCount - 1))];
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public DatabaseHost getHost() {
+        return host;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public double getEwmaLatencyNanos() {
+        return ewmaLatencyNanos;
+    }
+
+    public double getEwmaAcquireNanos() {
+        return ewmaAcquireNanos;
+    }
+
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public long getLastProbeAtMillis() {
+        return lastProbeAtMillis;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,55 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends connections used inside a {@code readOnly} transaction to a secondary host and everything
+ * else to the active (primary) host.
+ * <p>
+ * The routing decision is deferred by {@link LazyConnectionDataSourceProxy}: the JPA transaction manager
+ * opens its connection before the read-only flag is bound to the thread, so the physical connection is
+ * only chosen when the first statement runs.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final FailoverDataSource failoverDataSource;
+
+    public ReadWriteRoutingDataSource(FailoverDataSource failoverDataSource) {
+        super(new ReadOnlyAwareDataSource(failoverDataSource));
+        this.failoverDataSource = failoverDataSource;
+    }
+
+    @Override
+    public void close() {
+        failoverDataSource.close();
+    }
+
+    private static class ReadOnlyAwareDataSource extends DelegatingDataSource {
+
+        private final FailoverDataSource failoverDataSource;
+
+        ReadOnlyAwareDataSource(FailoverDataSource failoverDataSource) {
+            super(failoverDataSource);
+            this.failoverDataSource = failoverDataSource;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return failoverDataSource.getReadConnection();
+            }
+            return failoverDataSource.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Orders candidate hosts for a read using live signals: outstanding connections on the host's pool,
+ * the EWMA of connection acquisition wait and the EWMA of probe round-trip latency, divided by the
+ * host's static {@code weight}.
+ */
+public class ReplicaBalancer {
+
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_OUTSTANDING, POWER_OF_TWO_CHOICES
+    }
+
+    /**
+     * Latency assumed for a host that has not been probed yet.
+     */
+    private static final double DEFAULT_LATENCY_NANOS = 1_000_000;
+
+    private final Strategy strategy;
+    private final List<HostStats> stats;
+    private final IntUnaryOperator outstanding;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * @param outstanding returns the number of borrowed plus waiting connections for a host index
+     */
+    public ReplicaBalancer(Strategy strategy, List<HostStats> stats, IntUnaryOperator outstanding) {
+        this.strategy = strategy;
+        this.stats = stats;
+        this.outstanding = outstanding;
+    }
+
+    /**
+     * Returns the candidates ordered by preference; callers try them in order until one succeeds.
+     */
+    public List<Integer> rank(List<Integer> candidates) {
+        List<Integer> ranked = new ArrayList<>(candidates);
+        if (ranked.size() < 2) {
+            return ranked;
+        }
+
+        switch (strategy) {
+            case ROUND_ROBIN -> Collections.rotate(ranked, -Math.floorMod(cursor.getAndIncrement(), ranked.size()));
+            case LEAST_OUTSTANDING -> ranked.sort(Comparator.comparingDouble(this::cost));
+            case POWER_OF_TWO_CHOICES -> {
+                // Sample two hosts at random and prefer the cheaper one; the rest stay as cost-ordered fallbacks
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(ranked.size());
+                int second = (first + 1 + random.nextInt(ranked.size() - 1)) % ranked.size();
+                int winner = cost(ranked.get(first)) <= cost(ranked.get(second)) ? ranked.get(first) : ranked.get(second);
+                ranked.sort(Comparator.comparingDouble(this::cost));
+                ranked.remove(Integer.valueOf(winner));
+                ranked.addFirst(winner);
+            }
+        }
+        return ranked;
+    }
+
+    double cost(int index) {
+        HostStats hostStats = stats.get(index);
+        double latency = hostStats.getEwmaLatencyNanos() < 0 ? DEFAULT_LATENCY_NANOS : hostStats.getEwmaLatencyNanos();
+        double acquire = Math.max(0, hostStats.getEwmaAcquireNanos());
+        int weight = Math.max(1, hostStats.getHost().getWeight());
+        return (outstanding.applyAsInt(index) + 1) * (latency + acquire) / weight;
+    }
+}
@@ -0,0 +1,13 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.batch")
+public class BatchProperties {
+    // Products inserted per transaction
+    private int chunkSize = 1000;
+    // Largest list accepted by one batch request
+    private int maxSize = 50000;
+}
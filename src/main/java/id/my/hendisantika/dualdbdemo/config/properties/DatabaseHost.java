@@ -17,4 +17,5 @@ import lombok.Data;
 public class DatabaseHost {
     private String host = "localhost";
     private int port;
+    private int weight = 1;
 }
@@ -18,5 +18,12 @@ public class FailoverProperties {
     private boolean enabled = false;
     private int maxRetries = 3;
     private long retryDelay = 1000;
+    private int circuitFailureThreshold = 3;
     private long healthCheckInterval = 30000;
+    private long probeTimeout = 2000;
+    private double probeJitter = 0.2;
+    private boolean warmStandby = false;
+    private int standbyMinimumIdle = 1;
+    private long standbyKeepaliveTime = 30000;
+    private long drainTimeout = 30000;
 }
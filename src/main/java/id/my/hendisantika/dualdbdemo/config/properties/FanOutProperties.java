@@ -0,0 +1,15 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.fan-out")
+public class FanOutProperties {
+    private boolean virtualThreads = true;
+    private int poolSize = 16;
+    private int queueCapacity = 100;
+    private long timeout = 10000;
+    private boolean partialResults = false;
+    private int streamBufferSize = 256;
+}
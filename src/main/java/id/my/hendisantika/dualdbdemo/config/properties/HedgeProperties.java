@@ -0,0 +1,12 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+
+@Data
+public class HedgeProperties {
+    private boolean enabled = false;
+    private double percentile = 95.0;
+    private long minDelay = 5;
+    private double budgetRatio = 0.05;
+    private int maxBurst = 10;
+}
@@ -0,0 +1,17 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+    // Directory server-side files may be imported from; unset disables file imports
+    private String directory;
+    // Encoded rows are handed to each database in chunks of about this many bytes
+    private int chunkBytes = 65536;
+    // Chunks buffered per database before the parser waits, bounding memory
+    private int bufferedChunks = 16;
+    // Rows between progress log lines
+    private long progressInterval = 100000;
+}
@@ -0,0 +1,24 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.inventory")
+public class InventoryProperties {
+    // Largest quantity one reserve or release request may move
+    private int maxQuantity = 1000;
+    private Combining combining = new Combining();
+
+    @Data
+    public static class Combining {
+        // Collect concurrent reservations of the same product and apply them as one UPDATE
+        private boolean enabled = false;
+        // Milliseconds a reservation waits for others to join it
+        private long window = 2;
+        // Independent collection queues per database, by product id; a power of two
+        private int stripes = 16;
+        // Threads per database applying collected reservations
+        private int threads = 4;
+    }
+}
@@ -26,4 +26,5 @@ public class PostgresProperties {
     private String password;
     private HikariPoolProperties pool = new HikariPoolProperties();
     private FailoverProperties failover = new FailoverProperties();
+    private ReadRoutingProperties readRouting = new ReadRoutingProperties();
 }
@@ -0,0 +1,16 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.products")
+public class ProductCacheProperties {
+    private boolean enabled = false;
+    // Maximum cached products per database
+    private long maximumSize = 10000;
+    // Milliseconds after a load or write before an entry expires
+    private long expireAfterWrite = 60000;
+    // Milliseconds between max(updated_at)/max(id) checks for changes made outside this instance, 0 disables
+    private long versionReconcileInterval = 60000;
+}
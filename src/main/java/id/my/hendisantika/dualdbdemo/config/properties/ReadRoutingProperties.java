@@ -0,0 +1,11 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.ReplicaBalancer;
+import lombok.Data;
+
+@Data
+public class ReadRoutingProperties {
+    private boolean enabled = false;
+    private ReplicaBalancer.Strategy balancer = ReplicaBalancer.Strategy.POWER_OF_TWO_CHOICES;
+    private HedgeProperties hedge = new HedgeProperties();
+}
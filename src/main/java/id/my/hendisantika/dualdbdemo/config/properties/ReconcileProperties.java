@@ -0,0 +1,21 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.reconcile")
+public class ReconcileProperties {
+    // Ids covered by one digest query
+    private long chunkSize = 10000;
+    // Milliseconds to wait between two chunk queries, leaving the databases to regular traffic
+    private long chunkPause = 50;
+    // Length of the hash prefix rows are bucketed by: 3 gives 4096 buckets
+    private int bucketHexDigits = 3;
+    // Milliseconds between scheduled runs, 0 to only run on request
+    private long interval = 0;
+    // Whether scheduled runs copy missing rows to the other database
+    private boolean repair = false;
+    // Differing ids listed per database in a report
+    private int maxReportedIds = 1000;
+}
@@ -0,0 +1,24 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.replication")
+public class ReplicationProperties {
+    // Continuously copy changes between the databases; also makes deletes leave tombstones
+    private boolean enabled = false;
+    // Databases whose changes are copied to the other one
+    private Set<DatabaseVendor> origins = EnumSet.allOf(DatabaseVendor.class);
+    // Milliseconds between polls once a database is caught up
+    private long pollInterval = 1000;
+    // Changed rows, and tombstones, read per poll and applied per target transaction
+    private int batchSize = 500;
+    // Rows updated more recently than this (ms) are left for a later poll, so a transaction that commits
+    // after a newer one is not skipped by the watermark
+    private long settleTime = 2000;
+}
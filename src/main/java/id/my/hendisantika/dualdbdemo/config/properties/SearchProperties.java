@@ -0,0 +1,17 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+    private InMemory inMemory = new InMemory();
+
+    @Data
+    public static class InMemory {
+        private boolean enabled = false;
+        private boolean includeDescription = false;
+        private int buildBatchSize = 1000;
+    }
+}
@@ -0,0 +1,31 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.SyncMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.sync")
+public class SyncProperties {
+    // Used by POST /api/products/sync when the request has no mode parameter
+    private SyncMode mode = SyncMode.DIRECT;
+    private Outbox outbox = new Outbox();
+
+    @Data
+    public static class Outbox {
+        // Whether this instance drains the outboxes; outbox writes are accepted either way
+        private boolean replicatorEnabled = true;
+        // Database written first in outbox mode when the request has no origin parameter
+        private DatabaseVendor origin = DatabaseVendor.MYSQL;
+        // Entries copied per target transaction
+        private int batchSize = 100;
+        // Milliseconds between polls; commits through this instance also wake the replicator
+        private long pollInterval = 1000;
+        // Entries that failed this often stay in the outbox for an operator to look at
+        private int maxAttempts = 10;
+        // Delay after the first failure in milliseconds, doubled per attempt up to max-retry-backoff
+        private long retryBackoff = 1000;
+        private long maxRetryBackoff = 60000;
+    }
+}
@@ -0,0 +1,17 @@
+package id.my.hendisantika.dualdbdemo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.write-behind")
+public class WriteBehindProperties {
+    // Queue product updates and write them in batches instead of one transaction per request
+    private boolean enabled = false;
+    // Milliseconds between flushes
+    private long flushInterval = 200;
+    // Queued products that trigger an early flush; also the number of UPDATEs per transaction
+    private int flushSize = 500;
+    // Queued products at which updates flush on the caller's thread, and fail if that does not help
+    private int maxPending = 10000;
+}
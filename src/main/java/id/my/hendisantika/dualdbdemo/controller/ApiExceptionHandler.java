@@ -0,0 +1,37 @@
+package id.my.hendisantika.dualdbdemo.controller;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+import id.my.hendisantika.dualdbdemo.exception.ReconcileInProgressException;
+import id.my.hendisantika.dualdbdemo.exception.WriteUnavailableException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps the exceptions the services use to reject a request onto status codes, with the reason as the
+ * {@code detail} of a problem response.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /**
+     * Unknown sort, mode, target or format names, invalid cursors, patches, quantities, batches and import
+     * records. Other {@link IllegalArgumentException}s are bugs and stay 500s without their message.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ProblemDetail handleInvalidRequest(InvalidRequestException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler({OptimisticLockingFailureException.class, ReconcileInProgressException.class})
+    public ProblemDetail handleConflict(RuntimeException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(WriteUnavailableException.class)
+    public ProblemDetail handleWriteUnavailable(WriteUnavailableException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+}
@@ -0,0 +1,41 @@
+package id.my.hendisantika.dualdbdemo.controller;
+
+import id.my.hendisantika.dualdbdemo.cache.ResponseSnapshot;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * {@code If-None-Match} handling for the list endpoints. The ETag is checked before any rows are read, which
+ * {@code ResponseEntity.eTag} alone would only do after the body was built.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Weak comparison, as RFC 9110 requires for {@code If-None-Match}.
+     */
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || candidate.tag().equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity<byte[]> notModifiedResponse(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    static ResponseEntity.BodyBuilder ok(ResponseSnapshot snapshot) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        return snapshot.etag() == null ? response : response.eTag(snapshot.etag());
+    }
+}
@@ -1,17 +1,30 @@
 package id.my.hendisantika.dualdbdemo.controller;
 
+import id.my.hendisantika.dualdbdemo.cache.ResponseSnapshot;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.BatchCreateResponse;
+import id.my.hendisantika.dualdbdemo.dto.ProductPage;
+import id.my.hendisantika.dualdbdemo.dto.ProductPatch;
 import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
 import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.dto.ProductSort;
+import id.my.hendisantika.dualdbdemo.dto.SearchMode;
+import id.my.hendisantika.dualdbdemo.service.ProductBatchService;
+import id.my.hendisantika.dualdbdemo.service.ProductInventoryService;
+import id.my.hendisantika.dualdbdemo.service.ProductPatchService;
 import id.my.hendisantika.dualdbdemo.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -36,6 +49,9 @@ import java.util.List;
 public class MysqlProductController {
 
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
+    private final ProductPatchService productPatchService;
+    private final ProductInventoryService productInventoryService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -43,9 +59,38 @@ public class MysqlProductController {
         return productService.createMysqlProduct(request);
     }
 
+    /**
+     * Creates many products in chunked transactions; the response reports the ids and insert throughput.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResponse> createProducts(@RequestBody List<ProductRequest> requests) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(productBatchService.create(DatabaseVendor.MYSQL, requests));
+    }
+
+    /**
+     * Served from the last serialized list while the table is unchanged; answers {@code If-None-Match} with 304
+     * without reading any rows.
+     */
     @GetMapping
-    public List<ProductResponse> getAllProducts() {
-        return productService.getAllMysqlProducts();
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = productService.getMysqlProductsETag();
+        if (ConditionalResponses.notModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModifiedResponse(etag);
+        }
+        ResponseSnapshot snapshot = productService.getAllMysqlProductsSnapshot();
+        return ConditionalResponses.ok(snapshot).body(snapshot.body());
+    }
+
+    /**
+     * Keyset-paginated listing; pass the returned {@code nextCursor} back as {@code cursor} for the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ProductPage> getProductPage(@RequestParam(defaultValue = "id") String sort,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(productService.getMysqlProductPage(ProductSort.from(sort), cursor, size));
     }
 
     @GetMapping("/{id}")
@@ -55,6 +100,9 @@ public class MysqlProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 409 when the row changed between being read and written.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> updateProduct(@PathVariable Long id, @RequestBody ProductRequest request) {
         return productService.updateMysqlProduct(id, request)
@@ -62,14 +110,58 @@ public class MysqlProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Sets only the fields in the body, if the product is still at the body's {@code version}: 409 when it is
+     * not, 400 without a version or any field to set, 503 when a queued write-behind update of the product
+     * cannot be written first.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductResponse> patchProduct(@PathVariable Long id, @RequestBody ProductPatch patch) {
+        return productPatchService.patch(DatabaseVendor.MYSQL, id, patch)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 204 when the stock was taken, 409 when less than {@code quantity} is left, 400 for a quantity outside
+     * 1..{@code app.inventory.max-quantity}.
+     */
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<Void> reserveStock(@PathVariable Long id, @RequestParam(defaultValue = "1") int quantity) {
+        return switch (productInventoryService.reserve(DatabaseVendor.MYSQL, id, quantity)) {
+            case RESERVED -> ResponseEntity.noContent().build();
+            case INSUFFICIENT_STOCK -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
+
+    /**
+     * Administrative restock, not tied to a reservation: 204 when the stock was added, 409 when it would
+     * overflow the quantity column, 400 for a quantity outside 1..{@code app.inventory.max-quantity}.
+     */
+    @PostMapping("/{id}/release")
+    public ResponseEntity<Void> releaseStock(@PathVariable Long id, @RequestParam(defaultValue = "1") int quantity) {
+        return switch (productInventoryService.release(DatabaseVendor.MYSQL, id, quantity)) {
+            case RELEASED -> ResponseEntity.noContent().build();
+            case STOCK_LIMIT_EXCEEDED -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteProduct(@PathVariable Long id) {
         productService.deleteMysqlProduct(id);
     }
 
+    /**
+     * Ranked, limited name search through the database's name index ({@code mode=auto}), or the plain
+     * {@code LIKE} scan ({@code mode=like}, also used when the index is missing).
+     */
     @GetMapping("/search")
-    public List<ProductResponse> searchProducts(@RequestParam String name) {
-        return productService.searchMysqlProducts(name);
+    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String name,
+                                                                @RequestParam(defaultValue = "auto") String mode,
+                                                                @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(productService.searchMysqlProducts(name, SearchMode.from(mode), limit));
     }
 }
@@ -1,17 +1,40 @@
 package id.my.hendisantika.dualdbdemo.controller;
 
+import id.my.hendisantika.dualdbdemo.cache.ResponseSnapshot;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.FanOutProperties;
+import id.my.hendisantika.dualdbdemo.dto.ImportFormat;
+import id.my.hendisantika.dualdbdemo.dto.ImportResult;
+import id.my.hendisantika.dualdbdemo.dto.ImportTarget;
+import id.my.hendisantika.dualdbdemo.dto.MergedProductSort;
+import id.my.hendisantika.dualdbdemo.dto.ProductPage;
 import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
 import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.dto.ReconciliationReport;
+import id.my.hendisantika.dualdbdemo.dto.ReplicationStatus;
+import id.my.hendisantika.dualdbdemo.dto.SyncMode;
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+import id.my.hendisantika.dualdbdemo.service.ProductImportService;
+import id.my.hendisantika.dualdbdemo.service.ProductReconciler;
+import id.my.hendisantika.dualdbdemo.service.ProductReplicator;
 import id.my.hendisantika.dualdbdemo.service.ProductService;
+import id.my.hendisantika.dualdbdemo.service.ProductSyncService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -30,16 +53,124 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final String MISSING_SOURCES_HEADER = "X-Missing-Sources";
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductReconciler productReconciler;
+    private final ProductReplicator productReplicator;
+    private final ProductSyncService productSyncService;
+    private final FanOutProperties fanOutProperties;
 
+    /**
+     * Served from the last serialized result while neither table changed; answers {@code If-None-Match} with 304
+     * without querying either database. Partial results carry no ETag.
+     */
     @GetMapping("/all")
-    public List<ProductResponse> getAllProductsFromBothDatabases() {
-        return productService.getAllProductsFromBothDatabases();
+    public ResponseEntity<byte[]> getAllProductsFromBothDatabases(
+            @RequestParam(required = false) Boolean partial,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = productService.getAllProductsETag();
+        if (ConditionalResponses.notModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModifiedResponse(etag);
+        }
+        boolean allowPartial = partial != null ? partial : fanOutProperties.isPartialResults();
+        ResponseSnapshot snapshot = productService.getAllProductsSnapshot(allowPartial);
+        ResponseEntity.BodyBuilder response = ConditionalResponses.ok(snapshot);
+        if (snapshot.isPartial()) {
+            response.header(MISSING_SOURCES_HEADER, String.join(",", snapshot.missingSources()));
+        }
+        return response.body(snapshot.body());
+    }
+
+    /**
+     * One page from both databases in a single order, e.g. {@code ?sort=price&size=50} for the 50 cheapest
+     * products across both stores. Pass the returned {@code nextCursor} back as {@code cursor}.
+     */
+    @GetMapping("/all/page")
+    public ResponseEntity<ProductPage> getMergedProductPage(@RequestParam(defaultValue = "name") String sort,
+                                                            @RequestParam(defaultValue = "asc") String direction,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(productService.getMergedProductPage(MergedProductSort.from(sort),
+                Sort.Direction.fromOptionalString(direction).orElseThrow(() ->
+                        new InvalidRequestException("Unknown direction " + direction + ", use asc or desc")),
+                cursor, size));
+    }
+
+    @GetMapping("/search")
+    public List<ProductResponse> searchAllProducts(@RequestParam String name,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        return productService.searchAllProducts(name, limit);
+    }
+
+    /**
+     * Streams products from both databases as newline-delimited JSON, in arrival order, without
+     * materializing either table.
+     */
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProductsFromBothDatabases() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productService::streamAllProducts);
+    }
+
+    /**
+     * Bulk import of CSV (header row required) or NDJSON from the request body, or from {@code file} inside
+     * {@code app.import.directory}, into {@code target} = mysql, postgresql or both. The format comes from
+     * {@code format}, else the file extension, else the Content-Type.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResult> importProducts(
+            @RequestParam(defaultValue = "both") String target,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String file,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+        ImportTarget importTarget = ImportTarget.from(target);
+        ImportFormat importFormat = ImportFormat.resolve(format, file, contentType);
+        return ResponseEntity.ok(file != null
+                ? productImportService.importProductsFromFile(file, importFormat, importTarget)
+                : productImportService.importProducts(body, importFormat, importTarget));
+    }
+
+    /**
+     * Compares both tables and, with {@code repair=true}, copies rows missing on one side to the other. Runs
+     * synchronously; 409 while another run is in progress.
+     */
+    @PostMapping("/reconcile")
+    public ResponseEntity<ReconciliationReport> reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(productReconciler.reconcile(repair));
+    }
+
+    @GetMapping("/reconcile")
+    public ResponseEntity<ReconciliationReport> getLastReconciliation() {
+        return productReconciler.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Watermark, lag and counters of each replicated origin; empty while {@code app.replication.enabled} is off.
+     */
+    @GetMapping("/replication")
+    public List<ReplicationStatus> getReplicationStatus() {
+        return productReplicator.getStatus();
     }
 
+    /**
+     * {@code mode=outbox} returns 202 with the origin database's product as soon as it committed; the other
+     * database follows asynchronously. A direct sync returns 201 once both committed.
+     */
     @PostMapping("/sync")
-    @ResponseStatus(HttpStatus.CREATED)
-    public void syncProductToBothDatabases(@RequestBody ProductRequest request) {
-        productService.syncProductToBothDatabases(request);
+    public ResponseEntity<ProductResponse> syncProductToBothDatabases(
+            @RequestBody ProductRequest request,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String origin) {
+        return productSyncService.syncProductToBothDatabases(request,
+                        mode != null ? SyncMode.from(mode) : null,
+                        origin != null ? DatabaseVendor.from(origin) : null)
+                .map(product -> ResponseEntity.accepted().body(product))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CREATED).build());
     }
 }
@@ -0,0 +1,22 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateResponse {
+
+    private String source;
+    private int created;
+    private int chunks;
+    private long elapsedMillis;
+    private double productsPerSecond;
+    private List<Long> ids;
+}
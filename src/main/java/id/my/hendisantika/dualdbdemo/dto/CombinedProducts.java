@@ -0,0 +1,22 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CombinedProducts {
+
+    private List<ProductResponse> products;
+    private List<String> missingSources;
+
+    public boolean isPartial() {
+        return missingSources != null && !missingSources.isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    /**
+     * Comma-separated values with a header row naming the columns.
+     */
+    CSV,
+    /**
+     * One JSON product object per line.
+     */
+    NDJSON;
+
+    public static ImportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown import format " + value + ", use csv or ndjson");
+        }
+    }
+
+    /**
+     * Picks the format from an explicit value, else a file extension, else the request content type.
+     */
+    public static ImportFormat resolve(String value, String fileName, String contentType) {
+        if (value != null) {
+            return from(value);
+        }
+        String hint = (fileName != null ? fileName : contentType != null ? contentType : "").toLowerCase(Locale.ROOT);
+        if (hint.endsWith(".csv") || hint.startsWith("text/csv")) {
+            return CSV;
+        }
+        if (hint.endsWith(".ndjson") || hint.endsWith(".jsonl") || hint.startsWith("application/x-ndjson")) {
+            return NDJSON;
+        }
+        throw new InvalidRequestException("Cannot tell the import format, pass format=csv or format=ndjson");
+    }
+}
@@ -0,0 +1,22 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+
+    private ImportFormat format;
+    private long rows;
+    // Rows each database reported as loaded, by database display name
+    private Map<String, Long> loaded;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
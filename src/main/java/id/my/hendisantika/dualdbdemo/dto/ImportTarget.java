@@ -0,0 +1,36 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+public enum ImportTarget {
+    MYSQL(EnumSet.of(DatabaseVendor.MYSQL)),
+    POSTGRESQL(EnumSet.of(DatabaseVendor.POSTGRESQL)),
+    /**
+     * Both databases, loaded in parallel from the same parsed input.
+     */
+    BOTH(EnumSet.allOf(DatabaseVendor.class));
+
+    private final Set<DatabaseVendor> vendors;
+
+    ImportTarget(Set<DatabaseVendor> vendors) {
+        this.vendors = vendors;
+    }
+
+    public Set<DatabaseVendor> getVendors() {
+        return vendors;
+    }
+
+    public static ImportTarget from(String value) {
+        try {
+            String normalized = value.trim().toUpperCase(Locale.ROOT);
+            return "POSTGRES".equals(normalized) ? POSTGRESQL : valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown import target " + value + ", use mysql, postgresql or both");
+        }
+    }
+}
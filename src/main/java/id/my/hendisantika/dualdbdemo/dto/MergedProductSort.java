@@ -0,0 +1,72 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Sort keys for pages merged across both databases. Rows with a {@code null} key are not listed because
+ * keyset positions cannot be expressed for them.
+ */
+public enum MergedProductSort {
+    // Both databases sort by the generated name_key column, lower(name) in a binary collation, i.e. by code
+    // point. The merge compares the keys they computed the same way instead of re-deriving them here.
+    NAME("nameKey", ProductResponse::getNameKey, String::valueOf, Comparator.comparing(String::valueOf,
+            MergedProductSort::compareCodePoints)),
+    PRICE("price", ProductResponse::getPrice, BigDecimal::new, Comparator.comparing(BigDecimal.class::cast)),
+    UPDATED_AT("updatedAt", ProductResponse::getUpdatedAt, LocalDateTime::parse,
+            Comparator.comparing(LocalDateTime.class::cast));
+
+    private final String property;
+    private final Function<ProductResponse, Object> key;
+    private final Function<String, Object> parser;
+    private final Comparator<Object> keyOrder;
+
+    MergedProductSort(String property, Function<ProductResponse, Object> key, Function<String, Object> parser,
+                      Comparator<Object> keyOrder) {
+        this.property = property;
+        this.key = key;
+        this.parser = parser;
+        this.keyOrder = keyOrder;
+    }
+
+    public static MergedProductSort from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown sort " + value + ", use name, price or updated_at");
+        }
+    }
+
+    /**
+     * Entity property the databases sort by.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    public Object keyOf(ProductResponse product) {
+        return key.apply(product);
+    }
+
+    public Object parseKey(String value) {
+        return parser.apply(value);
+    }
+
+    // String.compareTo compares UTF-16 chars, which orders supplementary characters differently
+    private static int compareCodePoints(String left, String right) {
+        return Arrays.compare(left.codePoints().toArray(), right.codePoints().toArray());
+    }
+
+    /**
+     * Ascending order of products by this key, then by {@code id}.
+     */
+    public Comparator<ProductResponse> comparator() {
+        return Comparator.comparing(this::keyOf, keyOrder).thenComparing(ProductResponse::getId);
+    }
+}
@@ -0,0 +1,21 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+
+    private List<ProductResponse> products;
+    /**
+     * Opaque token for the next page, or {@code null} on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPatch {
+
+    // Fields left null keep their current value
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer quantity;
+    // The version the change is based on, as returned by the last read or write
+    private Long version;
+}
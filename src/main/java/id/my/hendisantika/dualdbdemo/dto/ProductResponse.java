@@ -1,5 +1,6 @@
 package id.my.hendisantika.dualdbdemo.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -32,5 +33,9 @@ public class ProductResponse {
     private Integer quantity;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     private String source;
+    // Sort key of the merged page by name, as the database computed it; not part of the API
+    @JsonIgnore
+    private String nameKey;
 }
@@ -0,0 +1,27 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+/**
+ * Orders supported by keyset pagination. Both end with {@code id} so every position is unique.
+ */
+public enum ProductSort {
+    /**
+     * Oldest first by {@code id}.
+     */
+    ID,
+    /**
+     * Most recently updated first by {@code updated_at, id}. Rows without {@code updated_at} are not listed.
+     */
+    UPDATED_AT;
+
+    public static ProductSort from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown sort " + value + ", use id or updated_at");
+        }
+    }
+}
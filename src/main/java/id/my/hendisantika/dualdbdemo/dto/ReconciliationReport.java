@@ -0,0 +1,38 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private LocalDateTime startedAt;
+    private long elapsedMillis;
+    private boolean consistent;
+    private long mysqlRows;
+    private long postgresRows;
+    private int buckets;
+    private int mismatchedBuckets;
+    // Rows whose content has no counterpart in the other database
+    private long onlyInMysqlCount;
+    private long onlyInPostgresCount;
+    // Their ids, up to app.reconcile.max-reported-ids per database
+    private List<Long> onlyInMysql;
+    private List<Long> onlyInPostgres;
+    // Rows that are the same product in both databases, by replication link or name, with different content
+    private long differentCount;
+    // MySQL id to PostgreSQL id, up to app.reconcile.max-reported-ids
+    private Map<Long, Long> different;
+    private boolean repaired;
+    private long copiedToMysql;
+    private long copiedToPostgres;
+}
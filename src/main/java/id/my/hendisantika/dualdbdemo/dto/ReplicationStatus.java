@@ -0,0 +1,28 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationStatus {
+
+    private String origin;
+    private String target;
+    // Last replicated change, by updated_at and id
+    private LocalDateTime watermark;
+    private long watermarkId;
+    private long tombstoneId;
+    // Age of the oldest change not replicated yet; 0 when caught up
+    private long lagMillis;
+    private long replicated;
+    private long deleted;
+    private LocalDateTime lastPollAt;
+    private String lastError;
+}
@@ -0,0 +1,24 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+public enum SearchMode {
+    /**
+     * Ranked, limited search through the name index when it exists, otherwise {@link #LIKE}.
+     */
+    AUTO,
+    /**
+     * Unranked case-insensitive {@code LIKE '%name%'} scan.
+     */
+    LIKE;
+
+    public static SearchMode from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown search mode " + value + ", use auto or like");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package id.my.hendisantika.dualdbdemo.dto;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+public enum SyncMode {
+    /**
+     * Inserts into both databases in parallel and returns once both committed.
+     */
+    DIRECT,
+    /**
+     * Commits to the origin database together with an outbox row and returns; the other database is
+     * written in the background.
+     */
+    OUTBOX;
+
+    public static SyncMode from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown sync mode " + value + ", use direct or outbox");
+        }
+    }
+}
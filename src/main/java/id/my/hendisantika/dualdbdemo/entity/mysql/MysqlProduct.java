@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -40,6 +41,10 @@ public class MysqlProduct {
     @Column(name = "name", nullable = false)
     private String name;
 
+    // Generated by the database from name; only read back by the merged page, which sorts by it
+    @Column(name = "name_key", insertable = false, updatable = false)
+    private String nameKey;
+
     @Column(name = "description")
     private String description;
 
@@ -54,4 +59,9 @@ public class MysqlProduct {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Bumped by every UPDATE, including the JDBC ones; PATCH only applies to the version it was sent
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
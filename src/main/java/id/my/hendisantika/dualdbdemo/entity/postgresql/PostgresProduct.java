@@ -5,7 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -33,13 +35,20 @@ import java.time.LocalDateTime;
 @Table(name = "products")
 public class PostgresProduct {
 
+    // Pooled sequence: one nextval reserves 50 ids, so inserts need no round trip for their key and can be
+    // batched. The sequence's INCREMENT BY must equal allocationSize (see init-postgres.sql)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
     private String name;
 
+    // Generated by the database from name; only read back by the merged page, which sorts by it
+    @Column(name = "name_key", insertable = false, updatable = false)
+    private String nameKey;
+
     @Column(name = "description")
     private String description;
 
@@ -54,4 +63,9 @@ public class PostgresProduct {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Bumped by every UPDATE, including the JDBC ones; PATCH only applies to the version it was sent
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -0,0 +1,15 @@
+package id.my.hendisantika.dualdbdemo.exception;
+
+/**
+ * A page cursor that was tampered with, is malformed, or was issued for another sort. Answered with 400.
+ */
+public class InvalidCursorException extends InvalidRequestException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package id.my.hendisantika.dualdbdemo.exception;
+
+/**
+ * A request the client has to change before it can succeed: an unknown sort, mode, target or format name, or
+ * an invalid patch, quantity, batch or import. Answered with 400 and the message as the reason; any other
+ * {@link IllegalArgumentException} is a server error.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
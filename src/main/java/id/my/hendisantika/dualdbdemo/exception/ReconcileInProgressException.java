@@ -0,0 +1,11 @@
+package id.my.hendisantika.dualdbdemo.exception;
+
+/**
+ * A reconciliation was requested while another one is still running. Answered with 409.
+ */
+public class ReconcileInProgressException extends IllegalStateException {
+
+    public ReconcileInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package id.my.hendisantika.dualdbdemo.exception;
+
+/**
+ * A write that cannot be applied right now, e.g. because a queued update of the same product could not be
+ * flushed or the component that applies it is shutting down. Retrying later may succeed; answered with 503.
+ */
+public class WriteUnavailableException extends IllegalStateException {
+
+    public WriteUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,111 @@
+package id.my.hendisantika.dualdbdemo.importer;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time: quoted fields may contain commas, doubled quotes and line
+ * breaks, and both LF and CRLF end a record. Only the current record is held in memory.
+ */
+class CsvReader {
+
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = NONE;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Line on which the record last returned by {@link #next()} started.
+     */
+    long getLine() {
+        return recordLine;
+    }
+
+    /**
+     * @return the next record's fields, or {@code null} at the end of input
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        // Skip blank lines between records
+        while (c == '\r' || c == '\n') {
+            skipLineBreak(c);
+            c = read();
+        }
+        if (c < 0) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new InvalidRequestException("Unterminated quoted field at line " + line);
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c < 0 || c == '\r' || c == '\n') {
+                fields.add(field.toString());
+                if (c >= 0) {
+                    skipLineBreak(c);
+                }
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    // Consumes the rest of a LF or CRLF line break whose first character was c
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                pushedBack = next;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+}
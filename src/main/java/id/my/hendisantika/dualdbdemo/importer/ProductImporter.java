@@ -0,0 +1,379 @@
+package id.my.hendisantika.dualdbdemo.importer;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.ImportProperties;
+import id.my.hendisantika.dualdbdemo.dto.ImportFormat;
+import id.my.hendisantika.dualdbdemo.dto.ImportResult;
+import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bulk product import that bypasses JPA: the input is parsed one record at a time on the calling thread,
+ * encoded as tab-separated text and streamed through a {@link RowPipe} per database into PostgreSQL
+ * {@code COPY FROM STDIN} and MySQL {@code LOAD DATA LOCAL INFILE}, which both read the same text format.
+ * Memory is bounded by the pipes' capacity whatever the input size.
+ * <p>
+ * Each database loads inside its own transaction on the executor. The transactions are only committed once
+ * every target has loaded all rows, so a failure in either database, or in the input, rolls back both.
+ */
+public class ProductImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImporter.class);
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String COLUMNS = "(name, description, price, quantity, created_at, updated_at)";
+    private static final String COPY_PRODUCTS = "COPY products " + COLUMNS + " FROM STDIN";
+    // LOAD DATA's default field, line and escape settings are the same text format COPY reads
+    private static final String LOAD_DATA_PRODUCTS =
+            "LOAD DATA LOCAL INFILE 'products.tsv' INTO TABLE products CHARACTER SET utf8mb4 " + COLUMNS;
+
+    /**
+     * Loads the tab-separated rows in {@code rows} into the products table on {@code connection}.
+     *
+     * @return rows the database reports as loaded
+     */
+    @FunctionalInterface
+    public interface BulkLoader {
+        long load(Connection connection, InputStream rows) throws SQLException, IOException;
+    }
+
+    private final ImportProperties properties;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+    private final Map<DatabaseVendor, Destination> destinations = new EnumMap<>(DatabaseVendor.class);
+
+    public ProductImporter(ImportProperties properties, ExecutorService executor, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+    }
+
+    public void register(DatabaseVendor vendor, DataSource dataSource, BulkLoader loader) {
+        destinations.put(vendor, new Destination(dataSource, loader));
+    }
+
+    public static long copyIn(Connection connection, InputStream rows) throws SQLException, IOException {
+        return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_PRODUCTS, rows);
+    }
+
+    public static long loadDataLocalInfile(Connection connection, InputStream rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // The driver reads this stream instead of opening the file named in the statement
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(rows);
+            return statement.executeLargeUpdate(LOAD_DATA_PRODUCTS);
+        }
+    }
+
+    /**
+     * Resolves {@code name} inside {@code app.import.directory}; paths leaving the directory are rejected.
+     */
+    public Path resolveFile(String name) {
+        if (properties.getDirectory() == null || properties.getDirectory().isBlank()) {
+            throw new InvalidRequestException("File imports are disabled, set app.import.directory");
+        }
+        Path directory = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+        Path file = directory.resolve(name).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new InvalidRequestException("No importable file " + name);
+        }
+        return file;
+    }
+
+    public ImportResult importProducts(InputStream input, ImportFormat format, Set<DatabaseVendor> targets) {
+        long start = System.nanoTime();
+        List<Load> loads = new ArrayList<>(targets.size());
+        try {
+            for (DatabaseVendor vendor : targets) {
+                Load load = new Load(vendor, new RowPipe(Math.max(1, properties.getBufferedChunks())));
+                loads.add(load);
+                load.task = executor.submit(() -> run(load, destinations.get(vendor)));
+            }
+            long rows = parse(input, format, loads, start);
+            for (Load load : loads) {
+                load.pipe.finish();
+            }
+            Map<String, Long> loaded = new LinkedHashMap<>();
+            for (Load load : loads) {
+                loaded.put(load.vendor.getDisplayName(), load.loaded.get());
+            }
+            for (Load load : loads) {
+                load.commit.complete(true);
+            }
+            for (Load load : loads) {
+                load.task.get();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            double perSecond = rows * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+            log.info("Imported {} {} rows into {} in {} ms ({} rows/s)", rows, format, loaded.keySet(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(perSecond));
+            return ImportResult.builder()
+                    .format(format)
+                    .rows(rows)
+                    .loaded(loaded)
+                    .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .rowsPerSecond(perSecond)
+                    .build();
+        } catch (Exception e) {
+            abort(loads, e);
+            throw failure(loads, e);
+        }
+    }
+
+    private long run(Load load, Destination destination) throws Exception {
+        try (Connection connection = destination.dataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long rows;
+                try (RowPipe pipe = load.pipe) {
+                    rows = destination.loader().load(connection, pipe);
+                }
+                load.loaded.complete(rows);
+                if (load.commit.get()) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+                return rows;
+            } catch (Exception e) {
+                load.pipe.abort(e);
+                load.loaded.completeExceptionally(e);
+                rollback(connection);
+                throw e;
+            }
+        }
+    }
+
+    private long parse(InputStream input, ImportFormat format, List<Load> loads, long start) throws IOException {
+        String timestamp = LocalDateTime.now().format(TIMESTAMP);
+        StringBuilder chunk = new StringBuilder(properties.getChunkBytes() + 1024);
+        long[] rows = {0};
+        Consumer<ProductRequest> append = request -> {
+            appendRow(chunk, request, timestamp);
+            if (++rows[0] % properties.getProgressInterval() == 0) {
+                double perSecond = rows[0] * 1_000_000_000.0 / Math.max(1, System.nanoTime() - start);
+                log.info("Import progress: {} rows ({} rows/s)", rows[0], Math.round(perSecond));
+            }
+            if (chunk.length() >= properties.getChunkBytes()) {
+                send(chunk, loads);
+            }
+        };
+        switch (format) {
+            case CSV -> readCsv(input, append);
+            case NDJSON -> readNdjson(input, append);
+        }
+        send(chunk, loads);
+        return rows[0];
+    }
+
+    private static void send(StringBuilder chunk, List<Load> loads) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Every pipe gets the same array; readers only copy out of it
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        chunk.setLength(0);
+        try {
+            for (Load load : loads) {
+                load.pipe.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readCsv(InputStream input, Consumer<ProductRequest> append) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 65536));
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // A UTF-8 byte order mark decodes to U+FEFF in front of the first column name
+            String column = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(column, i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new InvalidRequestException("CSV header has no name column");
+        }
+        while (true) {
+            List<String> record = csv.next();
+            if (record == null) {
+                return;
+            }
+            try {
+                String price = field(record, columns, "price");
+                String quantity = field(record, columns, "quantity");
+                append.accept(validate(ProductRequest.builder()
+                        .name(field(record, columns, "name"))
+                        .description(field(record, columns, "description"))
+                        .price(price == null || price.isBlank() ? null : new BigDecimal(price.trim()))
+                        .quantity(quantity == null || quantity.isBlank() ? null : Integer.valueOf(quantity.trim()))
+                        .build()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Invalid CSV record at line " + csv.getLine() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void readNdjson(InputStream input, Consumer<ProductRequest> append) {
+        long record = 0;
+        try (MappingIterator<ProductRequest> products = objectMapper.readerFor(ProductRequest.class).readValues(input)) {
+            while (products.hasNext()) {
+                append.accept(validate(products.next()));
+                record++;
+            }
+        } catch (JacksonException | IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid NDJSON record " + (record + 1) + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    private static ProductRequest validate(ProductRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new InvalidRequestException("name is required");
+        }
+        return request;
+    }
+
+    /**
+     * Appends one product in COPY text format, which is also LOAD DATA's default: tab-separated, newline
+     * terminated, {@code \N} for null and backslash escapes for backslash, tab, newline and carriage return.
+     */
+    static void appendRow(StringBuilder out, ProductRequest request, String timestamp) {
+        appendField(out, request.getName());
+        out.append('\t');
+        appendField(out, request.getDescription());
+        out.append('\t');
+        appendField(out, request.getPrice() == null ? null : request.getPrice().toPlainString());
+        out.append('\t');
+        appendField(out, request.getQuantity() == null ? null : request.getQuantity().toString());
+        out.append('\t').append(timestamp).append('\t').append(timestamp).append('\n');
+    }
+
+    private static void appendField(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // Stops every load and waits for their transactions to roll back before the caller sees the failure
+    private static void abort(List<Load> loads, Exception cause) {
+        for (Load load : loads) {
+            load.pipe.abort(cause);
+            load.commit.complete(false);
+        }
+        for (Load load : loads) {
+            if (load.task != null) {
+                try {
+                    load.task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // Reported through failure()
+                }
+            }
+        }
+    }
+
+    // A database error is the real cause when the parser only saw its pipe close
+    private static RuntimeException failure(List<Load> loads, Exception e) {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        for (Load load : loads) {
+            if (load.loaded.isCompletedExceptionally()) {
+                Throwable cause = load.loaded.exceptionNow();
+                log.error("Import into {} failed, no rows were committed", load.vendor.getDisplayName(), cause);
+                return new IllegalStateException("Import into " + load.vendor.getDisplayName() + " failed", cause);
+            }
+        }
+        if (e instanceof ExecutionException execution) {
+            // Every load had its rows and a commit failed; earlier commits could not be undone
+            log.error("Import commit failed, some databases may already have committed", execution.getCause());
+            return new IllegalStateException("Import commit failed", execution.getCause());
+        }
+        if (e instanceof InvalidRequestException invalid) {
+            log.warn("Import rejected: {}", invalid.getMessage());
+            return invalid;
+        }
+        return e instanceof RuntimeException runtime ? runtime : new IllegalStateException("Import failed", e);
+    }
+
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.warn("Rollback of failed import did not complete: {}", e.getMessage());
+        }
+    }
+
+    private record Destination(DataSource dataSource, BulkLoader loader) {
+    }
+
+    private static class Load {
+
+        private final DatabaseVendor vendor;
+        private final RowPipe pipe;
+        private final CompletableFuture<Long> loaded = new CompletableFuture<>();
+        private final CompletableFuture<Boolean> commit = new CompletableFuture<>();
+        private Future<Long> task;
+
+        Load(DatabaseVendor vendor, RowPipe pipe) {
+            this.vendor = vendor;
+            this.pipe = pipe;
+        }
+    }
+}
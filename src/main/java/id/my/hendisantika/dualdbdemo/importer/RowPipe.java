@@ -0,0 +1,118 @@
+package id.my.hendisantika.dualdbdemo.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded hand-off of encoded row chunks from the parsing thread to one database's loader, read by the
+ * driver as an {@link InputStream}.
+ * <p>
+ * Unlike a piped stream, either side can {@link #abort} it: the reader then fails with an
+ * {@link IOException} instead of seeing a clean end of input, so the database statement fails and rolls
+ * back rather than committing a truncated import, and a blocked writer stops waiting for a reader that
+ * is gone.
+ */
+class RowPipe extends InputStream {
+
+    private static final byte[] END = new byte[0];
+    private static final long POLL_MILLIS = 100;
+
+    private final BlockingQueue<byte[]> chunks;
+    private volatile Throwable failure;
+    private byte[] current;
+    private int position;
+    private boolean ended;
+
+    RowPipe(int capacity) {
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Blocks while the pipe is full.
+     */
+    void write(byte[] chunk) throws IOException {
+        try {
+            while (!chunks.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+            checkFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while handing rows to the database");
+        }
+    }
+
+    void finish() throws IOException {
+        write(END);
+    }
+
+    void abort(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+        }
+        chunks.clear();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (current == null || position == current.length) {
+            if (ended) {
+                return -1;
+            }
+            current = take();
+            position = 0;
+            if (current == END) {
+                ended = true;
+                return -1;
+            }
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() {
+        // The reader is done; a writer still producing rows must not block forever
+        if (!ended) {
+            abort(new IOException("Database stopped reading the import"));
+        }
+    }
+
+    private byte[] take() throws IOException {
+        try {
+            byte[] chunk;
+            do {
+                checkFailure();
+                chunk = chunks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } while (chunk == null);
+            checkFailure();
+            return chunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading import rows");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw cause instanceof IOException io ? new IOException(io.getMessage(), io)
+                    : new IOException("Import aborted", cause);
+        }
+    }
+}
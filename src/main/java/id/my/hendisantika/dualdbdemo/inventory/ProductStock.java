@@ -0,0 +1,67 @@
+package id.my.hendisantika.dualdbdemo.inventory;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock held in one database's {@code products.quantity}, moved by single conditional UPDATEs.
+ * <p>
+ * A reservation checks and decrements in the same statement, so it needs no read and no transaction, holds
+ * the row lock only while that statement runs, and never takes the quantity below zero. Like every other
+ * write, it moves {@code updated_at} and {@code version}.
+ */
+public class ProductStock {
+
+    private static final String RESERVE = "UPDATE products SET quantity = quantity - ?, updated_at = ?, "
+            + "version = version + 1 WHERE id = ? AND quantity >= ?";
+    // Guarded like a reservation, so the stock cannot overflow the INT column
+    private static final String RELEASE = "UPDATE products SET quantity = COALESCE(quantity, 0) + ?, "
+            + "updated_at = ?, version = version + 1 WHERE id = ? AND COALESCE(quantity, 0) <= ?";
+    private static final long MAX_STOCK = Integer.MAX_VALUE;
+    private static final String COUNT_PRODUCT_BY_ID = "SELECT COUNT(*) FROM products WHERE id = ?";
+
+    private final DatabaseVendor vendor;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStock(DatabaseVendor vendor, JdbcTemplate jdbcTemplate) {
+        this.vendor = vendor;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public DatabaseVendor getVendor() {
+        return vendor;
+    }
+
+    public ReservationOutcome reserve(long id, long quantity) {
+        if (tryReserve(id, quantity)) {
+            return ReservationOutcome.RESERVED;
+        }
+        return exists(id) ? ReservationOutcome.INSUFFICIENT_STOCK : ReservationOutcome.NOT_FOUND;
+    }
+
+    /**
+     * Takes {@code quantity} if all of it is available, otherwise nothing.
+     */
+    public boolean tryReserve(long id, long quantity) {
+        return jdbcTemplate.update(RESERVE, quantity, LocalDateTime.now(), id, quantity) > 0;
+    }
+
+    /**
+     * Adds {@code quantity} to the stock unless the result would exceed the column's maximum. Nothing ties it
+     * to an earlier reservation.
+     */
+    public ReleaseOutcome release(long id, long quantity) {
+        if (jdbcTemplate.update(RELEASE, quantity, LocalDateTime.now(), id, MAX_STOCK - quantity) > 0) {
+            return ReleaseOutcome.RELEASED;
+        }
+        return exists(id) ? ReleaseOutcome.STOCK_LIMIT_EXCEEDED : ReleaseOutcome.NOT_FOUND;
+    }
+
+    // Only asked after a reservation or release was refused, to tell a missing product from an empty one
+    public boolean exists(long id) {
+        Long rows = jdbcTemplate.queryForObject(COUNT_PRODUCT_BY_ID, Long.class, id);
+        return rows != null && rows > 0;
+    }
+}
@@ -0,0 +1,8 @@
+package id.my.hendisantika.dualdbdemo.inventory;
+
+public enum ReleaseOutcome {
+    RELEASED,
+    // The stock would no longer fit the INT quantity column
+    STOCK_LIMIT_EXCEEDED,
+    NOT_FOUND
+}
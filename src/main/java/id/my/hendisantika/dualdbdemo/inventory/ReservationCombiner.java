@@ -0,0 +1,199 @@
+package id.my.hendisantika.dualdbdemo.inventory;
+
+import id.my.hendisantika.dualdbdemo.config.properties.InventoryProperties;
+import id.my.hendisantika.dualdbdemo.exception.WriteUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Combines concurrent reservations of the same product into one {@link ProductStock} UPDATE.
+ * <p>
+ * Reservations are queued on one of {@code stripes} lock-free queues chosen by product id. The first one to
+ * arrive on an idle stripe schedules a drain {@code window} milliseconds later; everything queued on that
+ * stripe by then is grouped by product and each group's total is reserved with a single statement, so a hot
+ * product takes its row lock once per window instead of once per request. When the total is not available
+ * the group's reservations are applied one by one, in arrival order, and each gets its own outcome.
+ * Callers block until their reservation has been applied.
+ */
+public class ReservationCombiner implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationCombiner.class);
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final ProductStock stock;
+    private final long window;
+    private final Stripe[] stripes;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private volatile boolean closed;
+
+    public ReservationCombiner(ProductStock stock, InventoryProperties.Combining properties) {
+        this.stock = stock;
+        this.window = properties.getWindow();
+        if (properties.isEnabled()) {
+            int count = Integer.highestOneBit(Math.max(1, properties.getStripes()));
+            stripes = new Stripe[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new Stripe();
+            }
+            AtomicInteger threads = new AtomicInteger();
+            String name = stock.getVendor().getDisplayName() + "-Reservations-";
+            scheduler = Executors.newScheduledThreadPool(Math.max(1, properties.getThreads()), r -> {
+                Thread t = new Thread(r, name + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            stripes = new Stripe[0];
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return scheduler != null;
+    }
+
+    /**
+     * Waits for the reservation to be applied together with the others collected in its window.
+     *
+     * @throws WriteUnavailableException when the combiner is closed
+     */
+    public ReservationOutcome reserve(long id, long quantity) {
+        Pending pending = new Pending(id, quantity);
+        Stripe stripe = stripes[spread(id) & (stripes.length - 1)];
+        stripe.queue.add(pending);
+        requests.incrementAndGet();
+        // close() drains once more after setting closed; whatever it missed is taken back here
+        if (closed && stripe.queue.remove(pending)) {
+            throw new WriteUnavailableException(stock.getVendor().getDisplayName() + " reservation combiner is closed");
+        }
+        if (stripe.scheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(() -> drain(stripe), window, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                drain(stripe);
+            }
+        }
+        try {
+            return pending.outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("{} reservations did not finish in time", stock.getVendor().getDisplayName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Stripe stripe : stripes) {
+            drain(stripe);
+        }
+    }
+
+    private void drain(Stripe stripe) {
+        // Cleared first: a reservation queued from here on schedules the next drain itself
+        stripe.scheduled.set(false);
+        Map<Long, List<Pending>> byProduct = new LinkedHashMap<>();
+        Pending pending;
+        while ((pending = stripe.queue.poll()) != null) {
+            byProduct.computeIfAbsent(pending.id, id -> new ArrayList<>()).add(pending);
+        }
+        byProduct.forEach(this::apply);
+    }
+
+    private void apply(Long id, List<Pending> group) {
+        try {
+            long total = group.stream().mapToLong(pending -> pending.quantity).sum();
+            statements.incrementAndGet();
+            if (stock.tryReserve(id, total)) {
+                group.forEach(pending -> pending.outcome.complete(ReservationOutcome.RESERVED));
+                return;
+            }
+            if (group.size() == 1) {
+                statements.incrementAndGet();
+                group.getFirst().outcome.complete(stock.exists(id)
+                        ? ReservationOutcome.INSUFFICIENT_STOCK : ReservationOutcome.NOT_FOUND);
+                return;
+            }
+            // Not enough for everyone: serve them in arrival order while stock lasts
+            Boolean exists = null;
+            for (Pending each : group) {
+                statements.incrementAndGet();
+                if (stock.tryReserve(id, each.quantity)) {
+                    each.outcome.complete(ReservationOutcome.RESERVED);
+                    continue;
+                }
+                if (exists == null) {
+                    statements.incrementAndGet();
+                    exists = stock.exists(id);
+                }
+                each.outcome.complete(exists ? ReservationOutcome.INSUFFICIENT_STOCK : ReservationOutcome.NOT_FOUND);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reserve {} product {} for {} requests: {}", stock.getVendor().getDisplayName(), id,
+                    group.size(), e.getMessage());
+            group.forEach(pending -> pending.outcome.completeExceptionally(e));
+        }
+    }
+
+    // Spreads sequential ids over the stripes
+    private static int spread(long id) {
+        int h = Long.hashCode(id);
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripe {
+        private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+
+    private static final class Pending {
+        private final long id;
+        private final long quantity;
+        private final CompletableFuture<ReservationOutcome> outcome = new CompletableFuture<>();
+
+        private Pending(long id, long quantity) {
+            this.id = id;
+            this.quantity = quantity;
+        }
+    }
+}
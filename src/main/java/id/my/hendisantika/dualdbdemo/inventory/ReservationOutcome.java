@@ -0,0 +1,8 @@
+package id.my.hendisantika.dualdbdemo.inventory;
+
+public enum ReservationOutcome {
+    RESERVED,
+    // The product has less stock than requested, or none tracked
+    INSUFFICIENT_STOCK,
+    NOT_FOUND
+}
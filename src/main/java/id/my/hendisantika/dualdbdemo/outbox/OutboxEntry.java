@@ -0,0 +1,14 @@
+package id.my.hendisantika.dualdbdemo.outbox;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One product waiting in a database's {@code product_outbox} to be copied to the other database.
+ *
+ * @param productId the product's id in the origin database
+ * @param attempts  failed replication attempts so far
+ */
+public record OutboxEntry(long id, long productId, String name, String description, BigDecimal price,
+                          Integer quantity, LocalDateTime createdAt, LocalDateTime updatedAt, int attempts) {
+}
@@ -0,0 +1,215 @@
+package id.my.hendisantika.dualdbdemo.outbox;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One database's {@code product_outbox} and {@code product_sync_applied} tables.
+ * <p>
+ * {@link #enqueue} joins the caller's transaction, so the outbox row commits or rolls back with the product.
+ * {@link #apply} copies entries from the other database's outbox into this one and records each entry's id in
+ * the same transaction: replaying a batch whose outbox rows could not be deleted afterwards skips what was
+ * already applied, and two instances draining the same outbox collide on the applied table's primary key
+ * instead of inserting the product twice.
+ * <p>
+ * Each copy is also linked to its original in {@code product_replica_links}, so the change replicator treats
+ * the two rows as one product instead of copying it again. An entry whose product the replicator already
+ * copied is marked applied against that copy without inserting a second one.
+ */
+public class ProductOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String INSERT_ENTRY = "INSERT INTO product_outbox (product_id, name, description, price, "
+            + "quantity, created_at, updated_at, next_attempt_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_DUE = "SELECT id, product_id, name, description, price, quantity, "
+            + "created_at, updated_at, attempts FROM product_outbox WHERE attempts < ? AND next_attempt_at <= ? "
+            + "ORDER BY id LIMIT ?";
+    private static final String DELETE_ENTRY = "DELETE FROM product_outbox WHERE id = ?";
+    private static final String RESCHEDULE_ENTRY =
+            "UPDATE product_outbox SET attempts = attempts + 1, next_attempt_at = ?, last_error = ? WHERE id = ?";
+    private static final String SELECT_APPLIED =
+            "SELECT outbox_id FROM product_sync_applied WHERE origin = :origin AND outbox_id IN (:ids)";
+    private static final String INSERT_APPLIED =
+            "INSERT INTO product_sync_applied (origin, outbox_id, product_id) VALUES (?, ?, ?)";
+    private static final String SELECT_LINKS = "SELECT origin_id, product_id FROM product_replica_links "
+            + "WHERE origin = :origin AND origin_id IN (:ids)";
+    private static final String INSERT_LINK =
+            "INSERT INTO product_replica_links (origin, origin_id, product_id) VALUES (?, ?, ?)";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (name, description, price, quantity, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final DatabaseVendor vendor;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param transactionManager the JPA transaction manager over the same data source, so outbox rows share the
+     *                           connection of the entity writes they belong to
+     */
+    public ProductOutbox(DatabaseVendor vendor, JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager) {
+        this.vendor = vendor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public DatabaseVendor getVendor() {
+        return vendor;
+    }
+
+    /**
+     * Adds {@code product}, just written to this database, to the outbox. Must run in the transaction that
+     * wrote it.
+     */
+    public void enqueue(ProductResponse product) {
+        jdbcTemplate.update(INSERT_ENTRY, product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getQuantity(), product.getCreatedAt(), product.getUpdatedAt(),
+                LocalDateTime.now());
+    }
+
+    /**
+     * Oldest entries that are due and have not used up their attempts. Timestamps come from the application's
+     * clock on both sides of the comparison, so the database's time zone does not matter.
+     */
+    public List<OutboxEntry> due(int limit, int maxAttempts) {
+        return jdbcTemplate.query(SELECT_DUE, (rs, rowNum) -> new OutboxEntry(
+                rs.getLong("id"),
+                rs.getLong("product_id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getBigDecimal("price"),
+                rs.getObject("quantity", Integer.class),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class),
+                rs.getInt("attempts")), maxAttempts, LocalDateTime.now(), limit);
+    }
+
+    public void delete(List<OutboxEntry> entries) {
+        jdbcTemplate.batchUpdate(DELETE_ENTRY, entries.stream()
+                .map(entry -> new Object[]{entry.id()})
+                .toList());
+    }
+
+    public void reschedule(OutboxEntry entry, LocalDateTime nextAttemptAt, String error) {
+        String message = error == null || error.length() <= MAX_ERROR_LENGTH ? error
+                : error.substring(0, MAX_ERROR_LENGTH);
+        jdbcTemplate.update(RESCHEDULE_ENTRY, nextAttemptAt, message, entry.id());
+    }
+
+    /**
+     * Inserts the entries from {@code origin}'s outbox that this database has not applied yet and links each
+     * copy to its original, in one transaction.
+     *
+     * @return the products created here, with this database's ids
+     */
+    public List<ProductResponse> apply(DatabaseVendor origin, List<OutboxEntry> entries) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> applied = applied(origin, entries);
+            List<OutboxEntry> pending = entries.stream()
+                    .filter(entry -> !applied.contains(entry.id()))
+                    .toList();
+            if (pending.isEmpty()) {
+                return List.<ProductResponse>of();
+            }
+            Map<Long, Long> linked = linked(origin, pending);
+            List<OutboxEntry> copies = pending.stream()
+                    .filter(entry -> !linked.containsKey(entry.productId()))
+                    .toList();
+            List<ProductResponse> created = copies.isEmpty() ? List.of() : insertProducts(copies);
+            List<Object[]> links = new ArrayList<>(copies.size());
+            for (int i = 0; i < copies.size(); i++) {
+                links.add(new Object[]{origin.name(), copies.get(i).productId(), created.get(i).getId()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_LINK, links);
+            Map<Long, Long> copied = new HashMap<>(linked);
+            for (int i = 0; i < copies.size(); i++) {
+                copied.put(copies.get(i).productId(), created.get(i).getId());
+            }
+            List<Object[]> markers = new ArrayList<>(pending.size());
+            for (OutboxEntry entry : pending) {
+                markers.add(new Object[]{origin.name(), entry.id(), copied.get(entry.productId())});
+            }
+            jdbcTemplate.batchUpdate(INSERT_APPLIED, markers);
+            return created;
+        });
+    }
+
+    private Set<Long> applied(DatabaseVendor origin, List<OutboxEntry> entries) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("origin", origin.name())
+                .addValue("ids", entries.stream().map(OutboxEntry::id).toList());
+        return new HashSet<>(namedJdbcTemplate.queryForList(SELECT_APPLIED, parameters, Long.class));
+    }
+
+    private Map<Long, Long> linked(DatabaseVendor origin, List<OutboxEntry> entries) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("origin", origin.name())
+                .addValue("ids", entries.stream().map(OutboxEntry::productId).toList());
+        Map<Long, Long> linked = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_LINKS, parameters, rs -> {
+            linked.put(rs.getLong("origin_id"), rs.getLong("product_id"));
+        });
+        return linked;
+    }
+
+    private List<ProductResponse> insertProducts(List<OutboxEntry> entries) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OutboxEntry entry = entries.get(i);
+                        ps.setString(1, entry.name());
+                        ps.setString(2, entry.description());
+                        ps.setBigDecimal(3, entry.price());
+                        ps.setObject(4, entry.quantity(), Types.INTEGER);
+                        ps.setObject(5, entry.createdAt());
+                        ps.setObject(6, entry.updatedAt());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<ProductResponse> created = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            OutboxEntry entry = entries.get(i);
+            created.add(ProductResponse.builder()
+                    .id(((Number) generated.get(i).values().iterator().next()).longValue())
+                    .name(entry.name())
+                    .description(entry.description())
+                    .price(entry.price())
+                    .quantity(entry.quantity())
+                    .createdAt(entry.createdAt())
+                    .updatedAt(entry.updatedAt())
+                    .source(vendor.getDisplayName())
+                    .build());
+        }
+        return created;
+    }
+}
@@ -0,0 +1,16 @@
+package id.my.hendisantika.dualdbdemo.outbox;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+
+import java.util.List;
+
+/**
+ * Published after outbox entries or replicated changes were committed to {@code target}, so state derived from
+ * that database can follow rows that did not go through the service.
+ *
+ * @param products rows written to {@code target}
+ * @param deleted  ids of rows deleted from {@code target}
+ */
+public record ProductsReplicatedEvent(DatabaseVendor target, List<ProductResponse> products, List<Long> deleted) {
+}
@@ -0,0 +1,16 @@
+package id.my.hendisantika.dualdbdemo.reconcile;
+
+import java.math.BigInteger;
+
+/**
+ * Order-independent digest of the rows whose content hash starts with one bucket prefix: their count and the
+ * sum of the first 60 bits of each hash. Adding digests combines buckets, up to the whole table.
+ */
+public record BucketDigest(long rows, BigInteger hashSum) {
+
+    public static final BucketDigest EMPTY = new BucketDigest(0, BigInteger.ZERO);
+
+    public BucketDigest plus(BucketDigest other) {
+        return new BucketDigest(rows + other.rows, hashSum.add(other.hashSum));
+    }
+}
@@ -0,0 +1,138 @@
+package id.my.hendisantika.dualdbdemo.reconcile;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Server-side content hashes of one database's products table, read one id range at a time.
+ * <p>
+ * A row's hash is the MD5 of its name, description, price and quantity joined with {@code |}, written so that
+ * MySQL and PostgreSQL produce the same text, and so the same hash, for the same content. Ids and timestamps
+ * are left out: the two databases assign their own. Every query runs in its own short read-only transaction,
+ * so it is served by a replica when read routing is on, and only bucket digests or, for the buckets that
+ * differ, ids and hashes leave the server.
+ */
+public class ProductTableDigest {
+
+    private static final String MYSQL_ROW_HASH = "MD5(CONCAT_WS('|', name, COALESCE(description, ''), "
+            + "COALESCE(CAST(price AS CHAR), ''), COALESCE(CAST(quantity AS CHAR), '')))";
+    private static final String MYSQL_HASH_VALUE = "CAST(CONV(SUBSTRING(h, 1, 15), 16, 10) AS UNSIGNED)";
+    private static final String POSTGRES_ROW_HASH = "md5(concat_ws('|', name, coalesce(description, ''), "
+            + "coalesce(price::text, ''), coalesce(quantity::text, '')))";
+    private static final String POSTGRES_HASH_VALUE = "('x' || substr(h, 1, 15))::bit(60)::bigint";
+
+    private final DatabaseVendor vendor;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final String rowHash;
+    private final String hashValue;
+
+    private ProductTableDigest(DatabaseVendor vendor, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager, String rowHash, String hashValue) {
+        this.vendor = vendor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.rowHash = rowHash;
+        this.hashValue = hashValue;
+    }
+
+    public static ProductTableDigest mysql(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        return new ProductTableDigest(DatabaseVendor.MYSQL, jdbcTemplate, transactionManager, MYSQL_ROW_HASH,
+                MYSQL_HASH_VALUE);
+    }
+
+    public static ProductTableDigest postgresql(JdbcTemplate jdbcTemplate,
+                                                PlatformTransactionManager transactionManager) {
+        return new ProductTableDigest(DatabaseVendor.POSTGRESQL, jdbcTemplate, transactionManager,
+                POSTGRES_ROW_HASH, POSTGRES_HASH_VALUE);
+    }
+
+    public DatabaseVendor getVendor() {
+        return vendor;
+    }
+
+    /**
+     * Smallest and largest id, or {@code null} for an empty table.
+     */
+    public long[] idRange() {
+        return readOnly.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM products", (rs, rowNum) -> {
+                    long min = rs.getLong("min_id");
+                    return rs.wasNull() ? null : new long[]{min, rs.getLong("max_id")};
+                }));
+    }
+
+    /**
+     * Digests of the rows with {@code from <= id < to}, grouped by the first {@code hexDigits} characters of
+     * their hash.
+     */
+    public void bucketDigests(long from, long to, int hexDigits, BiConsumer<String, BucketDigest> consumer) {
+        String sql = "SELECT SUBSTR(h, 1, " + hexDigits + ") AS bucket, COUNT(*) AS row_count, SUM("
+                + hashValue + ") AS hash_sum FROM (SELECT " + rowHash
+                + " AS h FROM products WHERE id >= ? AND id < ?) t GROUP BY SUBSTR(h, 1, " + hexDigits + ")";
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(sql, rs -> {
+            consumer.accept(rs.getString("bucket"), new BucketDigest(rs.getLong("row_count"),
+                    rs.getBigDecimal("hash_sum").toBigIntegerExact()));
+        }, from, to));
+    }
+
+    /**
+     * Id and hash of each row with {@code from <= id < to} whose hash falls in one of {@code buckets}.
+     */
+    public void rowHashes(long from, long to, int hexDigits, Collection<String> buckets,
+                          BiConsumer<Long, String> consumer) {
+        String sql = "SELECT id, h FROM (SELECT id, " + rowHash
+                + " AS h FROM products WHERE id >= :from AND id < :to) t WHERE SUBSTR(h, 1, " + hexDigits
+                + ") IN (:buckets)";
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("buckets", buckets);
+        readOnly.executeWithoutResult(status -> namedJdbcTemplate.query(sql, parameters, rs -> {
+            consumer.accept(rs.getLong("id"), rs.getString("h"));
+        }));
+    }
+
+    /**
+     * The name of each of the given rows by id, in id order.
+     */
+    public Map<Long, String> names(Collection<Long> ids) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        readOnly.executeWithoutResult(status -> namedJdbcTemplate.query(
+                "SELECT id, name FROM products WHERE id IN (:ids) ORDER BY id", new MapSqlParameterSource("ids", ids), rs -> {
+                    names.put(rs.getLong("id"), rs.getString("name"));
+                }));
+        return names;
+    }
+
+    /**
+     * The content of the given rows by id, in id order, for copying them to the other database.
+     */
+    public Map<Long, ProductRequest> rows(Collection<Long> ids) {
+        Map<Long, ProductRequest> rows = new LinkedHashMap<>();
+        readOnly.executeWithoutResult(status -> namedJdbcTemplate.query(
+                "SELECT id, name, description, price, quantity FROM products WHERE id IN (:ids) ORDER BY id",
+                new MapSqlParameterSource("ids", ids), rs -> {
+                    rows.put(rs.getLong("id"), ProductRequest.builder()
+                            .name(rs.getString("name"))
+                            .description(rs.getString("description"))
+                            .price(rs.getBigDecimal("price"))
+                            .quantity(rs.getObject("quantity", Integer.class))
+                            .build());
+                }));
+        return rows;
+    }
+}
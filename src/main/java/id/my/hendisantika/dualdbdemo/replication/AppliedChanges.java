@@ -0,0 +1,12 @@
+package id.my.hendisantika.dualdbdemo.replication;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+
+import java.util.List;
+
+/**
+ * What one replicated batch changed in the target: rows inserted or updated, with the target's ids, and
+ * the target ids it deleted. Updates that lost to a newer local write are in neither.
+ */
+public record AppliedChanges(List<ProductResponse> written, List<Long> deleted) {
+}
@@ -0,0 +1,320 @@
+package id.my.hendisantika.dualdbdemo.replication;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One database's side of incremental replication: its change stream (products by {@code (updated_at, id)}
+ * and {@code product_tombstones}) as an origin, and as a target its links to the rows it mirrors and the
+ * watermark of what it applied.
+ * <p>
+ * Applied rows keep their origin's {@code updated_at}, and an update only overwrites a row that is older,
+ * so the newest write wins. The same rule stops replicated rows from bouncing back: when the other database
+ * reads them as changes, its own copy is not older than them.
+ */
+public class ProductReplicaStore {
+
+    private static final String SELECT_CHANGES = "SELECT id, name, description, price, quantity, created_at, "
+            + "updated_at FROM products WHERE updated_at < ? AND updated_at >= ? AND (updated_at > ? OR id > ?) "
+            + "ORDER BY updated_at, id LIMIT ?";
+    private static final String SELECT_TOMBSTONES = "SELECT id, product_id, deleted_at FROM product_tombstones "
+            + "WHERE id > ? AND deleted_at < ? ORDER BY id LIMIT ?";
+    private static final String INSERT_TOMBSTONE =
+            "INSERT INTO product_tombstones (product_id, deleted_at) VALUES (?, ?)";
+    private static final String DELETE_TOMBSTONES = "DELETE FROM product_tombstones WHERE id <= ?";
+    private static final String SELECT_WATERMARK =
+            "SELECT updated_at, last_id, tombstone_id FROM product_replication_watermark WHERE origin = ?";
+    private static final String UPDATE_WATERMARK = "UPDATE product_replication_watermark SET updated_at = ?, "
+            + "last_id = ?, tombstone_id = ? WHERE origin = ?";
+    private static final String SELECT_REPLICAS = "SELECT origin_id, product_id FROM product_replica_links "
+            + "WHERE origin = :origin AND origin_id IN (:ids)";
+    private static final String SELECT_ORIGINALS = "SELECT product_id, origin_id FROM product_replica_links "
+            + "WHERE origin = :origin AND product_id IN (:ids)";
+    private static final String INSERT_LINK =
+            "INSERT INTO product_replica_links (origin, origin_id, product_id) VALUES (?, ?, ?)";
+    private static final String DELETE_LINK_BY_ORIGIN =
+            "DELETE FROM product_replica_links WHERE origin = ? AND origin_id = ?";
+    private static final String DELETE_LINK_BY_PRODUCT = "DELETE FROM product_replica_links WHERE product_id = ?";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (name, description, price, quantity, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_IF_OLDER = "UPDATE products SET name = ?, description = ?, price = ?, "
+            + "quantity = ?, updated_at = ?, version = version + 1 "
+            + "WHERE id = ? AND (updated_at IS NULL OR updated_at < ?)";
+    private static final String DELETE_IF_NOT_NEWER =
+            "DELETE FROM products WHERE id = ? AND (updated_at IS NULL OR updated_at <= ?)";
+
+    private final DatabaseVendor vendor;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean tombstones;
+
+    /**
+     * @param tombstones whether {@link #recordTombstone} writes anything; off unless replication reads this
+     *                   database's changes, so the table does not grow without a reader
+     */
+    public ProductReplicaStore(DatabaseVendor vendor, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager, boolean tombstones) {
+        this.vendor = vendor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tombstones = tombstones;
+    }
+
+    public DatabaseVendor getVendor() {
+        return vendor;
+    }
+
+    /**
+     * Records that {@code productId} was deleted. Must run in the deleting transaction.
+     */
+    public void recordTombstone(Long productId) {
+        if (tombstones) {
+            jdbcTemplate.update(INSERT_TOMBSTONE, productId, LocalDateTime.now());
+        }
+    }
+
+    // Nothing here runs in a read-only transaction, so read routing never sends it to a replica: a lagging
+    // replica would move the watermark past rows it has not seen yet, or hand out a stale one
+
+    /**
+     * Products changed after {@code watermark} and before {@code until}, oldest first.
+     */
+    public List<ProductResponse> changes(Watermark watermark, LocalDateTime until, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES, (rs, rowNum) -> ProductResponse.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .description(rs.getString("description"))
+                        .price(rs.getBigDecimal("price"))
+                        .quantity(rs.getObject("quantity", Integer.class))
+                        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                        .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                        .source(vendor.getDisplayName())
+                        .build(),
+                until, watermark.updatedAt(), watermark.updatedAt(), watermark.lastId(), limit);
+    }
+
+    public List<Tombstone> tombstones(long afterId, LocalDateTime until, int limit) {
+        return jdbcTemplate.query(SELECT_TOMBSTONES, (rs, rowNum) -> new Tombstone(
+                rs.getLong("id"),
+                rs.getLong("product_id"),
+                rs.getObject("deleted_at", LocalDateTime.class)), afterId, until, limit);
+    }
+
+    /**
+     * Forgets tombstones the other database has applied, and the links of the deleted products.
+     */
+    public void pruneTombstones(List<Tombstone> applied) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_LINK_BY_PRODUCT, applied.stream()
+                    .map(tombstone -> new Object[]{tombstone.productId()})
+                    .toList());
+            jdbcTemplate.update(DELETE_TOMBSTONES, applied.getLast().id());
+        });
+    }
+
+    /**
+     * How far this database has applied {@code origin}'s changes.
+     */
+    public Watermark watermark(DatabaseVendor origin) {
+        return jdbcTemplate.queryForObject(SELECT_WATERMARK, (rs, rowNum) ->
+                new Watermark(rs.getObject("updated_at", LocalDateTime.class), rs.getLong("last_id"),
+                        rs.getLong("tombstone_id")), origin.name());
+    }
+
+    /**
+     * Ids of this database's rows that mirror the given rows of {@code origin}, by origin id.
+     */
+    public Map<Long, Long> replicasOf(DatabaseVendor origin, Collection<Long> originIds) {
+        return links(SELECT_REPLICAS, origin, originIds);
+    }
+
+    /**
+     * For those of the given rows that mirror a row of {@code origin}: that row's id, by product id.
+     */
+    public Map<Long, Long> originalsOf(DatabaseVendor origin, Collection<Long> productIds) {
+        return links(SELECT_ORIGINALS, origin, productIds);
+    }
+
+    /**
+     * Applies a batch of {@code origin}'s changes in one transaction, together with the new watermark.
+     *
+     * @param counterparts this database's id for each origin id that already has a counterpart here
+     */
+    public AppliedChanges apply(DatabaseVendor origin, List<ProductResponse> changes, List<Tombstone> deletes,
+                                Map<Long, Long> counterparts, Watermark next) {
+        return transactionTemplate.execute(status -> {
+            List<ProductResponse> updates = new ArrayList<>();
+            List<ProductResponse> inserts = new ArrayList<>();
+            for (ProductResponse change : changes) {
+                Long counterpart = counterparts.get(change.getId());
+                if (counterpart != null) {
+                    updates.add(copy(change, counterpart, change.getCreatedAt()));
+                } else {
+                    inserts.add(change);
+                }
+            }
+            // Rows inserted by this batch are deleted by it too when they were deleted right after
+            Map<Long, Long> linked = new HashMap<>(counterparts);
+            List<ProductResponse> written = new ArrayList<>(updateIfOlder(updates));
+            written.addAll(insert(origin, inserts, linked));
+            List<Long> deleted = delete(origin, deletes, linked);
+            jdbcTemplate.update(UPDATE_WATERMARK, next.updatedAt(), next.lastId(), next.tombstoneId(),
+                    origin.name());
+            return new AppliedChanges(written, deleted);
+        });
+    }
+
+    /**
+     * Records that this database's rows mirror the given rows of {@code origin}, as origin id to product id,
+     * e.g. after a reconciliation copied them here, so that replication updates them instead of copying
+     * them back as new rows.
+     */
+    public void link(DatabaseVendor origin, Map<Long, Long> replicas) {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // A link left behind by a replica deleted here would otherwise fail the insert
+            jdbcTemplate.batchUpdate(DELETE_LINK_BY_ORIGIN, replicas.keySet().stream()
+                    .map(originId -> new Object[]{origin.name(), originId})
+                    .toList());
+            jdbcTemplate.batchUpdate(INSERT_LINK, replicas.entrySet().stream()
+                    .map(link -> new Object[]{origin.name(), link.getKey(), link.getValue()})
+                    .toList());
+        });
+    }
+
+    private Map<Long, Long> links(String sql, DatabaseVendor origin, Collection<Long> ids) {
+        Map<Long, Long> links = new HashMap<>();
+        if (ids.isEmpty()) {
+            return links;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("origin", origin.name())
+                .addValue("ids", ids);
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            links.put(rs.getLong(1), rs.getLong(2));
+        });
+        return links;
+    }
+
+    private List<ProductResponse> updateIfOlder(List<ProductResponse> updates) {
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_IF_OLDER, updates.stream()
+                .map(product -> {
+                    LocalDateTime updatedAt = stored(product.getUpdatedAt());
+                    return new Object[]{product.getName(), product.getDescription(), product.getPrice(),
+                            product.getQuantity(), updatedAt, product.getId(), updatedAt};
+                })
+                .toList(), new int[]{Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.INTEGER,
+                Types.TIMESTAMP, Types.BIGINT, Types.TIMESTAMP});
+        List<ProductResponse> written = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            // 0: the row here is as new as the change, or gone; SUCCESS_NO_INFO (-2) counts as written
+            if (counts[i] != 0) {
+                written.add(updates.get(i));
+            }
+        }
+        return written;
+    }
+
+    private List<ProductResponse> insert(DatabaseVendor origin, List<ProductResponse> inserts,
+                                         Map<Long, Long> linked) {
+        if (inserts.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductResponse product = inserts.get(i);
+                        ps.setString(1, product.getName());
+                        ps.setString(2, product.getDescription());
+                        ps.setBigDecimal(3, product.getPrice());
+                        ps.setObject(4, product.getQuantity(), Types.INTEGER);
+                        ps.setObject(5, stored(product.getCreatedAt()));
+                        ps.setObject(6, stored(product.getUpdatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return inserts.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<ProductResponse> inserted = new ArrayList<>(inserts.size());
+        List<Object[]> links = new ArrayList<>(inserts.size());
+        for (int i = 0; i < inserts.size(); i++) {
+            ProductResponse product = inserts.get(i);
+            long id = ((Number) generated.get(i).values().iterator().next()).longValue();
+            inserted.add(copy(product, id, stored(product.getCreatedAt())));
+            links.add(new Object[]{origin.name(), product.getId(), id});
+            linked.put(product.getId(), id);
+        }
+        // Primary key on (origin, origin_id): a second replicator inserting the same row fails its batch
+        jdbcTemplate.batchUpdate(INSERT_LINK, links);
+        return inserted;
+    }
+
+    private List<Long> delete(DatabaseVendor origin, List<Tombstone> deletes, Map<Long, Long> counterparts) {
+        List<Long> deleted = new ArrayList<>();
+        for (Tombstone tombstone : deletes) {
+            Long counterpart = counterparts.get(tombstone.productId());
+            if (counterpart == null) {
+                continue;
+            }
+            if (jdbcTemplate.update(DELETE_IF_NOT_NEWER, counterpart, stored(tombstone.deletedAt())) > 0) {
+                deleted.add(counterpart);
+            }
+            jdbcTemplate.update(DELETE_LINK_BY_ORIGIN, origin.name(), tombstone.productId());
+        }
+        return deleted;
+    }
+
+    private ProductResponse copy(ProductResponse product, long id, LocalDateTime createdAt) {
+        return ProductResponse.builder()
+                .id(id)
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .quantity(product.getQuantity())
+                .createdAt(createdAt)
+                .updatedAt(stored(product.getUpdatedAt()))
+                .source(vendor.getDisplayName())
+                .build();
+    }
+
+    // The value this database keeps for a timestamp: MySQL's TIMESTAMP columns hold whole seconds (and would
+    // round rather than truncate), PostgreSQL's microseconds
+    private LocalDateTime stored(LocalDateTime value) {
+        if (value == null) {
+            return null;
+        }
+        return value.truncatedTo(vendor == DatabaseVendor.MYSQL ? ChronoUnit.SECONDS : ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,9 @@
+package id.my.hendisantika.dualdbdemo.replication;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product deleted through the application, kept until the other database applied the delete.
+ */
+public record Tombstone(long id, long productId, LocalDateTime deletedAt) {
+}
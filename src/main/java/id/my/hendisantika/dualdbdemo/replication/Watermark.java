@@ -0,0 +1,20 @@
+package id.my.hendisantika.dualdbdemo.replication;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Position in one database's change stream: the last replicated product by {@code (updated_at, id)} and the
+ * last replicated tombstone.
+ */
+public record Watermark(LocalDateTime updatedAt, long lastId, long tombstoneId) {
+
+    public Watermark advance(List<ProductResponse> changes, List<Tombstone> tombstones) {
+        ProductResponse last = changes.isEmpty() ? null : changes.getLast();
+        return new Watermark(last != null ? last.getUpdatedAt() : updatedAt,
+                last != null ? last.getId() : lastId,
+                tombstones.isEmpty() ? tombstoneId : tombstones.getLast().id());
+    }
+}
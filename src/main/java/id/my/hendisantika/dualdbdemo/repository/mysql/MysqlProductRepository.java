@@ -1,10 +1,23 @@
 package id.my.hendisantika.dualdbdemo.repository.mysql;
 
+import id.my.hendisantika.dualdbdemo.cache.TableFingerprint;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
 import id.my.hendisantika.dualdbdemo.entity.mysql.MysqlProduct;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Created by IntelliJ IDEA.
@@ -20,5 +33,56 @@ import java.util.List;
 @Repository
 public interface MysqlProductRepository extends JpaRepository<MysqlProduct, Long> {
 
-    List<MysqlProduct> findByNameContainingIgnoreCase(String name);
+    List<MysqlProduct> findByNameContainingIgnoreCaseOrderById(String name, Limit limit);
+
+    // Name search through the ngram FULLTEXT index: the boolean-mode phrase matches substrings, the
+    // natural-language score ranks them
+    @Query(value = "SELECT * FROM products WHERE MATCH(name) AGAINST (:phrase IN BOOLEAN MODE) "
+            + "ORDER BY MATCH(name) AGAINST (:query IN NATURAL LANGUAGE MODE) DESC, id LIMIT :limit",
+            nativeQuery = true)
+    List<MysqlProduct> searchByNameIndex(@Param("phrase") String phrase, @Param("query") String query,
+                                         @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+            + "AND table_name = 'products' AND index_name = 'ft_products_name'", nativeQuery = true)
+    long countNameSearchIndexes();
+
+    // Keyset pagination: each page starts strictly after the last row of the previous one, so the cost
+    // of a page does not depend on how deep it is
+    @Query("select p from MysqlProduct p where p.id > :afterId order by p.id")
+    List<MysqlProduct> findPageAfterId(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select p from MysqlProduct p where p.updatedAt is not null order by p.updatedAt desc, p.id desc")
+    List<MysqlProduct> findFirstPageByUpdatedAt(Limit limit);
+
+    @Query("select p from MysqlProduct p where p.updatedAt <= :updatedAt "
+            + "and (p.updatedAt < :updatedAt or p.id < :id) order by p.updatedAt desc, p.id desc")
+    List<MysqlProduct> findPageBeforeUpdatedAt(@Param("updatedAt") LocalDateTime updatedAt,
+                                               @Param("id") long id, Limit limit);
+
+    // Keyset scrolling with a dynamic sort for merged cross-database pages. Keyset positions cannot express
+    // nulls, so nullable sort keys get their own method that skips them
+    Window<MysqlProduct> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<MysqlProduct> findAllByPriceNotNull(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<MysqlProduct> findAllByUpdatedAtNotNull(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Streams every product as a DTO, row by row, holding the connection until the stream is closed; must be
+     * consumed inside a transaction.
+     */
+    @Query("select new id.my.hendisantika.dualdbdemo.dto.ProductResponse(p.id, p.name, p.description, p.price, "
+            + "p.quantity, p.createdAt, p.updatedAt, p.version, 'MySQL', p.nameKey) from MysqlProduct p order by p.id")
+    @QueryHints({
+            // Integer.MIN_VALUE: Connector/J streams the rows one by one instead of buffering the result
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ProductResponse> streamAll();
+
+    // Both aggregates are answered from an index (updated_at, id and the primary key) instead of a scan
+    @Query("select new id.my.hendisantika.dualdbdemo.cache.TableFingerprint(max(p.updatedAt), max(p.id)) "
+            + "from MysqlProduct p")
+    TableFingerprint fingerprint();
 }
@@ -1,10 +1,23 @@
 package id.my.hendisantika.dualdbdemo.repository.postgresql;
 
+import id.my.hendisantika.dualdbdemo.cache.TableFingerprint;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
 import id.my.hendisantika.dualdbdemo.entity.postgresql.PostgresProduct;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Created by IntelliJ IDEA.
@@ -20,5 +33,53 @@ import java.util.List;
 @Repository
 public interface PostgresProductRepository extends JpaRepository<PostgresProduct, Long> {
 
-    List<PostgresProduct> findByNameContainingIgnoreCase(String name);
+    List<PostgresProduct> findByNameContainingIgnoreCaseOrderById(String name, Limit limit);
+
+    // Name search through the pg_trgm GIN index, which serves ILIKE '%...%' directly; ranked by similarity
+    @Query(value = "SELECT * FROM products WHERE name ILIKE :pattern "
+            + "ORDER BY similarity(name, :query) DESC, id LIMIT :limit", nativeQuery = true)
+    List<PostgresProduct> searchByNameIndex(@Param("pattern") String pattern, @Param("query") String query,
+                                            @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM pg_indexes WHERE schemaname = current_schema() "
+            + "AND tablename = 'products' AND indexname = 'idx_products_name_trgm'", nativeQuery = true)
+    long countNameSearchIndexes();
+
+    // Keyset pagination: each page starts strictly after the last row of the previous one, so the cost
+    // of a page does not depend on how deep it is
+    @Query("select p from PostgresProduct p where p.id > :afterId order by p.id")
+    List<PostgresProduct> findPageAfterId(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select p from PostgresProduct p where p.updatedAt is not null order by p.updatedAt desc, p.id desc")
+    List<PostgresProduct> findFirstPageByUpdatedAt(Limit limit);
+
+    @Query("select p from PostgresProduct p where p.updatedAt <= :updatedAt "
+            + "and (p.updatedAt < :updatedAt or p.id < :id) order by p.updatedAt desc, p.id desc")
+    List<PostgresProduct> findPageBeforeUpdatedAt(@Param("updatedAt") LocalDateTime updatedAt,
+                                                  @Param("id") long id, Limit limit);
+
+    // Keyset scrolling with a dynamic sort for merged cross-database pages. Keyset positions cannot express
+    // nulls, so nullable sort keys get their own method that skips them
+    Window<PostgresProduct> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<PostgresProduct> findAllByPriceNotNull(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<PostgresProduct> findAllByUpdatedAtNotNull(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Streams every product as a DTO through a server-side cursor; must be consumed inside a transaction.
+     */
+    @Query("select new id.my.hendisantika.dualdbdemo.dto.ProductResponse(p.id, p.name, p.description, p.price, "
+            + "p.quantity, p.createdAt, p.updatedAt, p.version, 'PostgreSQL', p.nameKey) from PostgresProduct p "
+            + "order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ProductResponse> streamAll();
+
+    // Both aggregates are answered from an index (updated_at, id and the primary key) instead of a scan
+    @Query("select new id.my.hendisantika.dualdbdemo.cache.TableFingerprint(max(p.updatedAt), max(p.id)) "
+            + "from PostgresProduct p")
+    TableFingerprint fingerprint();
 }
@@ -0,0 +1,165 @@
+package id.my.hendisantika.dualdbdemo.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of non-negative longs stored as varint-encoded gaps in one byte array, so a posting of
+ * mostly consecutive ids costs about one byte per entry instead of a boxed {@code Long} and a node.
+ * <p>
+ * Appending a value larger than the current maximum is O(1) amortized; any other insert or removal
+ * rewrites the list. Not thread-safe.
+ */
+public class LongPostingList {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] data = EMPTY;
+    private int length;
+    private int count;
+    private long last = -1;
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return {@code false} if the value was already present
+     */
+    public boolean add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        if (value > last) {
+            append(value);
+            return true;
+        }
+        long[] values = toArray();
+        int pos = Arrays.binarySearch(values, value);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        long[] updated = new long[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, insertAt);
+        updated[insertAt] = value;
+        System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+        rewrite(updated);
+        return true;
+    }
+
+    /**
+     * @return {@code false} if the value was not present
+     */
+    public boolean remove(long value) {
+        if (value > last || value < 0) {
+            return false;
+        }
+        long[] values = toArray();
+        int pos = Arrays.binarySearch(values, value);
+        if (pos < 0) {
+            return false;
+        }
+        long[] updated = new long[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, pos);
+        System.arraycopy(values, pos + 1, updated, pos, values.length - pos - 1);
+        rewrite(updated);
+        return true;
+    }
+
+    public long[] toArray() {
+        long[] values = new long[count];
+        Decoder decoder = new Decoder();
+        for (int i = 0; i < count; i++) {
+            values[i] = decoder.next();
+        }
+        return values;
+    }
+
+    /**
+     * Returns the values of the sorted {@code candidates} array that are also in this list, walking both
+     * in a single merge pass without decoding the list into an array.
+     */
+    public long[] retainAll(long[] candidates) {
+        long[] kept = new long[Math.min(candidates.length, count)];
+        int keptCount = 0;
+        Decoder decoder = new Decoder();
+        int remaining = count;
+        long current = remaining > 0 ? decoder.next() : 0;
+        for (long candidate : candidates) {
+            while (remaining > 0 && current < candidate) {
+                remaining--;
+                current = remaining > 0 ? decoder.next() : 0;
+            }
+            if (remaining == 0) {
+                break;
+            }
+            if (current == candidate) {
+                kept[keptCount++] = candidate;
+            }
+        }
+        return keptCount == kept.length ? kept : Arrays.copyOf(kept, keptCount);
+    }
+
+    /**
+     * Encoded size in bytes, excluding spare capacity.
+     */
+    public int encodedBytes() {
+        return length;
+    }
+
+    private void append(long value) {
+        long gap = count == 0 ? value : value - last;
+        ensureCapacity(length + 10);
+        while ((gap & ~0x7FL) != 0) {
+            data[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        data[length++] = (byte) gap;
+        last = value;
+        count++;
+    }
+
+    private void rewrite(long[] values) {
+        data = EMPTY;
+        length = 0;
+        count = 0;
+        last = -1;
+        for (long value : values) {
+            append(value);
+        }
+        if (data.length > length) {
+            data = Arrays.copyOf(data, length);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > data.length) {
+            data = Arrays.copyOf(data, Math.max(required, data.length + (data.length >> 1) + 8));
+        }
+    }
+
+    private class Decoder {
+
+        private int offset;
+        private long previous;
+        private boolean first = true;
+
+        long next() {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous = first ? gap : previous + gap;
+            first = false;
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package id.my.hendisantika.dualdbdemo.search;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.SearchProperties;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram search over the products of both databases, so name searches never reach MySQL or
+ * PostgreSQL. Each database's index is built in the background once the application is ready by streaming
+ * its table, and is kept current by {@link #put} / {@link #remove} after every committed write.
+ * <p>
+ * A database's index only answers searches once its initial build has finished; until then, or if the build
+ * fails, callers fall back to the database.
+ */
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final SearchProperties.InMemory properties;
+    private final ExecutorService executor;
+    private final Map<DatabaseVendor, Source> sources = new EnumMap<>(DatabaseVendor.class);
+
+    public ProductSearchIndex(SearchProperties.InMemory properties, ExecutorService executor) {
+        this.properties = properties;
+        this.executor = executor;
+        for (DatabaseVendor vendor : DatabaseVendor.values()) {
+            sources.put(vendor, new Source(vendor, new TrigramIndex(properties.isIncludeDescription())));
+        }
+    }
+
+    /**
+     * Registers the table a database's index is built from.
+     *
+     * @param rows DTO stream of every product ordered by id, consumed inside a read-only transaction
+     */
+    public void register(DatabaseVendor vendor, PlatformTransactionManager transactionManager,
+                         Supplier<Stream<ProductResponse>> rows) {
+        Source source = sources.get(vendor);
+        source.transactionManager = transactionManager;
+        source.rows = rows;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (Source source : sources.values()) {
+            start(source);
+        }
+    }
+
+    /**
+     * Re-reads one database's table into its index, for changes that bypassed {@link #put}, such as a bulk
+     * import. The current index keeps answering searches meanwhile.
+     */
+    public void rebuild(DatabaseVendor vendor) {
+        if (isEnabled()) {
+            start(sources.get(vendor));
+        }
+    }
+
+    public boolean isReady(DatabaseVendor vendor) {
+        return isEnabled() && sources.get(vendor).ready;
+    }
+
+    public boolean isReady() {
+        return isEnabled() && sources.values().stream().allMatch(source -> source.ready);
+    }
+
+    public void put(DatabaseVendor vendor, ProductResponse product) {
+        if (isEnabled()) {
+            sources.get(vendor).apply(product.getId(), index -> index.put(product));
+        }
+    }
+
+    public void remove(DatabaseVendor vendor, long id) {
+        if (isEnabled()) {
+            sources.get(vendor).apply(id, index -> index.remove(id));
+        }
+    }
+
+    public List<ProductResponse> search(DatabaseVendor vendor, String term, int limit) {
+        return sources.get(vendor).index.search(term, limit);
+    }
+
+    /**
+     * Best {@code limit} matches across both databases.
+     */
+    public List<ProductResponse> searchAll(String term, int limit) {
+        List<ProductResponse> matches = new ArrayList<>();
+        for (Source source : sources.values()) {
+            matches.addAll(source.index.search(term, limit));
+        }
+        matches.sort(ranking(term));
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Search result order: match at the start of the name first, then earlier matches, then shorter names.
+     */
+    public static Comparator<ProductResponse> ranking(String term) {
+        return TrigramIndex.ranking(term);
+    }
+
+    private void start(Source source) {
+        if (source.rows != null && source.startBuild()) {
+            executor.submit(() -> build(source));
+        }
+    }
+
+    private void build(Source source) {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(source.transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> {
+                try (Stream<ProductResponse> rows = source.rows.get()) {
+                    List<ProductResponse> batch = new ArrayList<>(properties.getBuildBatchSize());
+                    rows.forEach(row -> {
+                        batch.add(row);
+                        if (batch.size() >= properties.getBuildBatchSize()) {
+                            source.load(batch);
+                            batch.clear();
+                        }
+                    });
+                    source.load(batch);
+                }
+            });
+            boolean again = source.finishBuild(true);
+            log.info("{} search index built: {} products, {} KB of postings in {} ms", source.vendor.getDisplayName(),
+                    source.index.documentCount(), source.index.postingBytes() / 1024,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (again) {
+                build(source);
+            }
+        } catch (RuntimeException e) {
+            source.finishBuild(false);
+            log.error("Failed to build {} search index, searches will use the database",
+                    source.vendor.getDisplayName(), e);
+        }
+    }
+
+    private static class Source {
+
+        private final DatabaseVendor vendor;
+        private final TrigramIndex index;
+        // Ids written while the initial build runs; the build must not overwrite them with older rows
+        private final Set<Long> touched = ConcurrentHashMap.newKeySet();
+        private PlatformTransactionManager transactionManager;
+        private Supplier<Stream<ProductResponse>> rows;
+        private volatile boolean building;
+        private volatile boolean ready;
+        // A rebuild was requested while one was running, which may have read the table too early
+        private boolean pending;
+
+        Source(DatabaseVendor vendor, TrigramIndex index) {
+            this.vendor = vendor;
+            this.index = index;
+        }
+
+        synchronized void apply(long id, Consumer<TrigramIndex> change) {
+            if (building) {
+                touched.add(id);
+            }
+            change.accept(index);
+        }
+
+        synchronized void load(List<ProductResponse> batch) {
+            index.putAll(batch.stream().filter(product -> !touched.contains(product.getId())).toList());
+        }
+
+        synchronized boolean startBuild() {
+            if (building) {
+                pending = true;
+                return false;
+            }
+            building = true;
+            return true;
+        }
+
+        /**
+         * @return {@code true} if another build was requested meanwhile and this one continues as that build
+         */
+        synchronized boolean finishBuild(boolean success) {
+            touched.clear();
+            if (!success) {
+                building = false;
+                pending = false;
+                ready = false;
+                index.clear();
+                return false;
+            }
+            ready = true;
+            building = pending;
+            pending = false;
+            return building;
+        }
+    }
+}
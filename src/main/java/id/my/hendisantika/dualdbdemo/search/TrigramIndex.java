@@ -0,0 +1,241 @@
+package id.my.hendisantika.dualdbdemo.search;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted trigram index over the products of one database. Each trigram of the lower-cased text maps
+ * to a {@link LongPostingList} of product ids; a substring query intersects the postings of its own
+ * trigrams and confirms the survivors against the stored text. Each product is stored with only the fields
+ * a result needs: its description is kept, and returned, only when descriptions are searched, and its
+ * quantity and version are left out because stock reservations move them without a full write. An update
+ * touches only the postings of the trigrams it adds or removes.
+ */
+class TrigramIndex {
+
+    static final int GRAM = 3;
+
+    // Keeps trigrams from spanning the name/description boundary
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final boolean includeDescription;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, LongPostingList> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    TrigramIndex(boolean includeDescription) {
+        this.includeDescription = includeDescription;
+    }
+
+    void put(ProductResponse product) {
+        lock.writeLock().lock();
+        try {
+            putLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putAll(Collection<ProductResponse> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                for (long gram : grams(previous.text())) {
+                    removePosting(gram, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products whose name (or description, when indexed) contains {@code term}, best matches first.
+     */
+    List<ProductResponse> search(String term, int limit) {
+        String needle = normalize(term);
+        List<ProductResponse> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM) {
+                // Too short to have a trigram; scan the stored documents instead
+                documents.forEach((id, document) -> {
+                    if (document.matches(needle)) {
+                        matches.add(document.toResponse(id));
+                    }
+                });
+            } else {
+                for (long id : candidates(needle)) {
+                    Document document = documents.get(id);
+                    if (document != null && document.matches(needle)) {
+                        matches.add(document.toResponse(id));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(ranking(term));
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long postingBytes() {
+        lock.readLock().lock();
+        try {
+            return postings.values().stream().mapToLong(LongPostingList::encodedBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Match at the start of the name first, then earlier matches, then shorter names, then id.
+     */
+    static Comparator<ProductResponse> ranking(String term) {
+        String needle = normalize(term);
+        return Comparator.<ProductResponse>comparingInt(product -> {
+                    int at = normalize(product.getName()).indexOf(needle);
+                    return at < 0 ? Integer.MAX_VALUE : at;
+                })
+                .thenComparingInt(product -> product.getName() == null ? 0 : product.getName().length())
+                .thenComparing(ProductResponse::getId);
+    }
+
+    private void putLocked(ProductResponse product) {
+        long id = product.getId();
+        Document document = new Document(product, includeDescription);
+        Document previous = documents.put(id, document);
+        Set<Long> grams = grams(document.text());
+        if (previous != null) {
+            // Most updates leave the text alone; only the postings of changed trigrams are rewritten
+            Set<Long> previousGrams = grams(previous.text());
+            for (long gram : previousGrams) {
+                if (!grams.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+            grams.removeAll(previousGrams);
+        }
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new LongPostingList()).add(id);
+        }
+    }
+
+    private void removePosting(long gram, long id) {
+        LongPostingList posting = postings.get(gram);
+        if (posting != null && posting.remove(id) && posting.isEmpty()) {
+            postings.remove(gram);
+        }
+    }
+
+    private long[] candidates(String needle) {
+        List<LongPostingList> lists = new ArrayList<>();
+        for (long gram : grams(needle)) {
+            LongPostingList posting = postings.get(gram);
+            if (posting == null) {
+                return new long[0];
+            }
+            lists.add(posting);
+        }
+        // Start from the rarest trigram so the candidate set is as small as possible from the outset
+        lists.sort(Comparator.comparingInt(LongPostingList::size));
+        long[] candidates = lists.getFirst().toArray();
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = lists.get(i).retainAll(candidates);
+        }
+        return candidates;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a != FIELD_SEPARATOR && b != FIELD_SEPARATOR && c != FIELD_SEPARATOR) {
+                grams.add(((long) a << 32) | ((long) b << 16) | c);
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * An indexed product without its id, which is the map key; {@code description} is null unless searched.
+     */
+    private record Document(String name, String description, BigDecimal price, LocalDateTime createdAt,
+                            LocalDateTime updatedAt, String source) {
+
+        Document(ProductResponse product, boolean includeDescription) {
+            this(product.getName(), includeDescription ? product.getDescription() : null, product.getPrice(),
+                    product.getCreatedAt(), product.getUpdatedAt(), product.getSource());
+        }
+
+        boolean matches(String needle) {
+            return normalize(name).contains(needle)
+                    || description != null && normalize(description).contains(needle);
+        }
+
+        String text() {
+            String text = normalize(name);
+            return description != null ? text + FIELD_SEPARATOR + normalize(description) : text;
+        }
+
+        ProductResponse toResponse(long id) {
+            return ProductResponse.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .price(price)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .source(source)
+                    .build();
+        }
+    }
+}
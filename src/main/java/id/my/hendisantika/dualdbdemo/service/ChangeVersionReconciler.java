@@ -0,0 +1,86 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.cache.ChangeVersion;
+import id.my.hendisantika.dualdbdemo.cache.ProductCache;
+import id.my.hendisantika.dualdbdemo.cache.TableFingerprint;
+import id.my.hendisantika.dualdbdemo.config.properties.ProductCacheProperties;
+import id.my.hendisantika.dualdbdemo.repository.mysql.MysqlProductRepository;
+import id.my.hendisantika.dualdbdemo.repository.postgresql.PostgresProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically reads each products table's {@link TableFingerprint} and bumps its {@link ChangeVersion} when
+ * it moved, so ETags and cached list responses also follow writes that did not go through this instance.
+ * When the change certainly came from elsewhere the by-id cache is cleared too, since it cannot tell which
+ * products were written.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChangeVersionReconciler implements Closeable {
+
+    private final MysqlProductRepository mysqlProductRepository;
+    private final PostgresProductRepository postgresProductRepository;
+    private final ChangeVersion mysqlChangeVersion;
+    private final ChangeVersion postgresChangeVersion;
+    private final ProductCache mysqlProductCache;
+    private final ProductCache postgresProductCache;
+    private final ProductCacheProperties properties;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        long interval = properties.getVersionReconcileInterval();
+        if (interval <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "VersionReconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void reconcile() {
+        reconcile("MySQL", mysqlChangeVersion, mysqlProductCache, mysqlProductRepository::fingerprint);
+        reconcile("PostgreSQL", postgresChangeVersion, postgresProductCache, postgresProductRepository::fingerprint);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Runs outside a read-only transaction so it reads the primary: replicas with different lag would make
+    // the fingerprint flap
+    private static void reconcile(String database, ChangeVersion version, ProductCache cache,
+                                  Supplier<TableFingerprint> fingerprint) {
+        try {
+            ChangeVersion.Change change = version.reconcile(fingerprint.get());
+            if (change == ChangeVersion.Change.EXTERNAL) {
+                cache.invalidateAll();
+            }
+            if (change != ChangeVersion.Change.NONE) {
+                log.debug("{} products fingerprint changed ({}), version is now {}", database, change,
+                        version.current());
+            }
+        } catch (RuntimeException e) {
+            // Keep the current version; the next run tries again
+            log.debug("Could not read {} products fingerprint: {}", database, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.dto.MergedProductSort;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.exception.InvalidCursorException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Composite keyset position for a page merged from both databases: the last row consumed from each side,
+ * or {@code null} for a side nothing has been taken from yet. Carried as an opaque URL-safe token.
+ */
+public record MergedPageCursor(MergedProductSort sort, Sort.Direction direction, Position mysql, Position postgres) {
+
+    private static final String VERSION = "v1";
+    private static final String START = "-";
+
+    /**
+     * Sort key (as text) and id of the last row consumed from one database.
+     */
+    public record Position(String key, long id) {
+
+        public static Position of(MergedProductSort sort, ProductResponse product) {
+            return new Position(String.valueOf(sort.keyOf(product)), product.getId());
+        }
+    }
+
+    public static MergedPageCursor start(MergedProductSort sort, Sort.Direction direction) {
+        return new MergedPageCursor(sort, direction, null, null);
+    }
+
+    public static ScrollPosition scrollPosition(MergedProductSort sort, Position position) {
+        if (position == null) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sort.getProperty(), sort.parseKey(position.key()));
+        keys.put("id", position.id());
+        return ScrollPosition.forward(keys);
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, sort.name(), direction.name(), encode(mysql), encode(postgres));
+        return base64(raw);
+    }
+
+    /**
+     * @throws InvalidCursorException if the token is malformed or was issued for another sort
+     */
+    public static MergedPageCursor decode(String token, MergedProductSort sort, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = unbase64(token).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed page cursor", e);
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Malformed page cursor");
+        }
+        if (!sort.name().equals(parts[1]) || !direction.name().equals(parts[2])) {
+            throw new InvalidCursorException("Page cursor was issued for sort " + parts[1] + " " + parts[2]);
+        }
+        try {
+            return new MergedPageCursor(sort, direction, decodePosition(sort, parts[3]), decodePosition(sort, parts[4]));
+        } catch (RuntimeException e) {
+            // Bad base64, a missing separator or a key that does not parse for this sort
+            throw new InvalidCursorException("Malformed page cursor", e);
+        }
+    }
+
+    private static String encode(Position position) {
+        return position == null ? START : base64(position.key()) + "." + position.id();
+    }
+
+    private static Position decodePosition(MergedProductSort sort, String value) {
+        if (START.equals(value)) {
+            return null;
+        }
+        int dot = value.lastIndexOf('.');
+        Position position = new Position(unbase64(value.substring(0, dot)), Long.parseLong(value.substring(dot + 1)));
+        sort.parseKey(position.key());
+        return position;
+    }
+
+    private static String base64(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String unbase64(String value) {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,171 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.SyncProperties;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.outbox.OutboxEntry;
+import id.my.hendisantika.dualdbdemo.outbox.ProductOutbox;
+import id.my.hendisantika.dualdbdemo.outbox.ProductsReplicatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains each database's {@link ProductOutbox} into the other one on its own thread.
+ * <p>
+ * Entries are copied in batches, one target transaction per batch, and deleted from the origin once that
+ * committed. When a batch fails its entries are retried one by one, so a single bad row only delays itself:
+ * it is rescheduled with exponential backoff and left in the outbox after {@code max-attempts}. An origin or
+ * target that is down just fails the poll; entries wait until the next one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxReplicator implements Closeable {
+
+    private final ProductOutbox mysqlProductOutbox;
+    private final ProductOutbox postgresProductOutbox;
+    private final SyncProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        SyncProperties.Outbox outbox = properties.getOutbox();
+        if (!outbox.isReplicatorEnabled() || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "OutboxReplicator");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, 0, outbox.getPollInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drains soon instead of at the next poll, e.g. right after an outbox write committed. Wake-ups that
+     * arrive while one is still queued are folded into it.
+     */
+    public void wakeUp() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null || !drainQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            current.execute(() -> {
+                drainQueued.set(false);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            drainQueued.set(false);
+        }
+    }
+
+    /**
+     * Copies everything that is due from both outboxes.
+     */
+    public void drain() {
+        drain(mysqlProductOutbox, postgresProductOutbox);
+        drain(postgresProductOutbox, mysqlProductOutbox);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            // Let a batch in flight finish; whatever is left is picked up after the restart
+            scheduler.shutdown();
+        }
+    }
+
+    private void drain(ProductOutbox origin, ProductOutbox target) {
+        SyncProperties.Outbox outbox = properties.getOutbox();
+        try {
+            int polled;
+            do {
+                List<OutboxEntry> entries = origin.due(outbox.getBatchSize(), outbox.getMaxAttempts());
+                polled = entries.size();
+                if (polled > 0) {
+                    replicate(origin, target, entries);
+                }
+            } while (polled == outbox.getBatchSize() && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            log.debug("Could not drain {} outbox: {}", origin.getVendor().getDisplayName(), e.getMessage());
+        }
+    }
+
+    private void replicate(ProductOutbox origin, ProductOutbox target, List<OutboxEntry> entries) {
+        try {
+            publish(target.getVendor(), target.apply(origin.getVendor(), entries));
+        } catch (RuntimeException batchFailure) {
+            log.debug("Outbox batch of {} failed, retrying entries one by one: {}", entries.size(),
+                    batchFailure.getMessage());
+            for (OutboxEntry entry : entries) {
+                replicateOne(origin, target, entry);
+            }
+            return;
+        }
+        // A failed delete leaves the entries due; the next poll skips them as already applied
+        origin.delete(entries);
+        counter("product.outbox.replicated", origin.getVendor()).increment(entries.size());
+    }
+
+    private void replicateOne(ProductOutbox origin, ProductOutbox target, OutboxEntry entry) {
+        List<OutboxEntry> single = List.of(entry);
+        try {
+            publish(target.getVendor(), target.apply(origin.getVendor(), single));
+        } catch (RuntimeException e) {
+            int attempts = entry.attempts() + 1;
+            LocalDateTime next = LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(attempts)));
+            if (attempts >= properties.getOutbox().getMaxAttempts()) {
+                log.error("Giving up on {} outbox entry {} (product {}) after {} attempts: {}",
+                        origin.getVendor().getDisplayName(), entry.id(), entry.productId(), attempts, e.getMessage());
+            } else {
+                log.warn("{} outbox entry {} (product {}) failed, attempt {} of {}: {}",
+                        origin.getVendor().getDisplayName(), entry.id(), entry.productId(), attempts,
+                        properties.getOutbox().getMaxAttempts(), e.getMessage());
+            }
+            origin.reschedule(entry, next, e.getMessage());
+            counter("product.outbox.failed", origin.getVendor()).increment();
+            return;
+        }
+        origin.delete(single);
+        counter("product.outbox.replicated", origin.getVendor()).increment();
+    }
+
+    private long backoffMillis(int attempts) {
+        SyncProperties.Outbox outbox = properties.getOutbox();
+        long backoff = outbox.getRetryBackoff() << Math.min(attempts - 1, 30);
+        return backoff <= 0 ? outbox.getMaxRetryBackoff() : Math.min(backoff, outbox.getMaxRetryBackoff());
+    }
+
+    private void publish(DatabaseVendor target, List<ProductResponse> products) {
+        if (!products.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsReplicatedEvent(target, products, List.of()));
+        }
+    }
+
+    private Counter counter(String name, DatabaseVendor origin) {
+        return meterRegistry.counter(name, "origin", origin.name().toLowerCase(Locale.ROOT));
+    }
+}
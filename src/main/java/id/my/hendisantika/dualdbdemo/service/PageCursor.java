@@ -0,0 +1,51 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductSort;
+import id.my.hendisantika.dualdbdemo.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position of the last row of a page, carried between requests as an opaque URL-safe token.
+ * The token records the sort it was produced for, so it cannot be replayed against another order.
+ */
+public record PageCursor(ProductSort sort, long id, LocalDateTime updatedAt) {
+
+    private static final String VERSION = "v1";
+
+    public String encode() {
+        String raw = String.join("|", VERSION, sort.name(), Long.toString(id),
+                updatedAt == null ? "" : updatedAt.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidCursorException if the token is malformed or belongs to a different sort
+     */
+    public static PageCursor decode(String token, ProductSort expectedSort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed page cursor", e);
+        }
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Malformed page cursor");
+        }
+        if (!expectedSort.name().equals(parts[1])) {
+            throw new InvalidCursorException("Page cursor was issued for sort " + parts[1]);
+        }
+        try {
+            LocalDateTime updatedAt = parts[3].isEmpty() ? null : LocalDateTime.parse(parts[3]);
+            if (expectedSort == ProductSort.UPDATED_AT && updatedAt == null) {
+                throw new InvalidCursorException("Malformed page cursor");
+            }
+            return new PageCursor(expectedSort, Long.parseLong(parts[2]), updatedAt);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed page cursor", e);
+        }
+    }
+}
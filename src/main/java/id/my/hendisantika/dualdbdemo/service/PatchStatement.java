@@ -0,0 +1,48 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductPatch;
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The conditional UPDATE for a {@link ProductPatch}: only the fields it carries are set, {@code updated_at}
+ * moves to now and {@code version} is bumped, on the one row still at the patch's version. The same SQL works
+ * on both databases.
+ */
+record PatchStatement(String sql, Object[] args) {
+
+    /**
+     * @throws InvalidRequestException when the patch has no version or no field to set
+     */
+    static PatchStatement of(Long id, ProductPatch patch) {
+        if (patch == null || patch.getVersion() == null) {
+            throw new InvalidRequestException("A patch needs the version it is based on");
+        }
+        List<String> assignments = new ArrayList<>(6);
+        List<Object> args = new ArrayList<>(8);
+        set(assignments, args, "name", patch.getName());
+        set(assignments, args, "description", patch.getDescription());
+        set(assignments, args, "price", patch.getPrice());
+        set(assignments, args, "quantity", patch.getQuantity());
+        if (assignments.isEmpty()) {
+            throw new InvalidRequestException("A patch needs at least one field to set");
+        }
+        assignments.add("updated_at = ?");
+        args.add(LocalDateTime.now());
+        assignments.add("version = version + 1");
+        args.add(id);
+        args.add(patch.getVersion());
+        return new PatchStatement("UPDATE products SET " + String.join(", ", assignments)
+                + " WHERE id = ? AND version = ?", args.toArray());
+    }
+
+    private static void set(List<String> assignments, List<Object> args, String column, Object value) {
+        if (value != null) {
+            assignments.add(column + " = ?");
+            args.add(value);
+        }
+    }
+}
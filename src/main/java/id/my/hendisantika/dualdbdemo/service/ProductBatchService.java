@@ -0,0 +1,153 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.BatchProperties;
+import id.my.hendisantika.dualdbdemo.dto.BatchCreateResponse;
+import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.entity.postgresql.PostgresProduct;
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+import id.my.hendisantika.dualdbdemo.repository.postgresql.PostgresProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Creates many products at once in chunked transactions.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductBatchService {
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (name, description, price, quantity, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final PostgresProductRepository postgresProductRepository;
+    private final ProductStores productStores;
+    private final ProductMetrics productMetrics;
+    private final BatchProperties batchProperties;
+
+    /**
+     * Inserts {@code requests}, committing every {@code app.batch.chunk-size} products. Chunks committed before
+     * a failure stay committed. MySQL gets JDBC batches, which the driver rewrites into multi-row INSERTs;
+     * PostgreSQL goes through Hibernate JDBC batching, with ids taken from the pooled sequence.
+     */
+    public BatchCreateResponse create(DatabaseVendor vendor, List<ProductRequest> requests) {
+        ProductStore store = productStores.get(vendor);
+        Function<List<ProductRequest>, List<ProductResponse>> insert = vendor == DatabaseVendor.MYSQL
+                ? chunk -> insertMysqlChunk(store, chunk)
+                : chunk -> insertPostgresChunk(store, chunk);
+        return productMetrics.record(store.getMetricsTag(), "createBatch", () ->
+                createInChunks(store, requests, insert));
+    }
+
+    private BatchCreateResponse createInChunks(ProductStore store, List<ProductRequest> requests,
+                                               Function<List<ProductRequest>, List<ProductResponse>> insert) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidRequestException("No products to create");
+        }
+        if (requests.size() > batchProperties.getMaxSize()) {
+            throw new InvalidRequestException("At most " + batchProperties.getMaxSize() + " products per batch");
+        }
+        String source = store.getVendor().getDisplayName();
+        int chunkSize = Math.max(1, batchProperties.getChunkSize());
+        TransactionTemplate transaction = new TransactionTemplate(store.getTransactionManager());
+        List<Long> ids = new ArrayList<>(requests.size());
+        int chunks = 0;
+        long start = System.nanoTime();
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<ProductRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            List<ProductResponse> created = transaction.execute(status -> insert.apply(chunk));
+            created.forEach(product -> ids.add(product.getId()));
+            chunks++;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        double perSecond = ids.size() * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+        log.info("Created {} {} products in {} chunks in {} ms ({} products/s)", ids.size(), source, chunks,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(perSecond));
+        return BatchCreateResponse.builder()
+                .source(source)
+                .created(ids.size())
+                .chunks(chunks)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .productsPerSecond(perSecond)
+                .ids(ids)
+                .build();
+    }
+
+    private List<ProductResponse> insertMysqlChunk(ProductStore store, List<ProductRequest> chunk) {
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keys = new GeneratedKeyHolder();
+        store.getJdbcTemplate().batchUpdate(
+                con -> con.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductRequest request = chunk.get(i);
+                        ps.setString(1, request.getName());
+                        ps.setString(2, request.getDescription());
+                        ps.setBigDecimal(3, request.getPrice());
+                        ps.setObject(4, request.getQuantity(), Types.INTEGER);
+                        ps.setObject(5, now);
+                        ps.setObject(6, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<ProductResponse> created = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductRequest request = chunk.get(i);
+            created.add(ProductResponse.builder()
+                    .id(((Number) generated.get(i).values().iterator().next()).longValue())
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .price(request.getPrice())
+                    .quantity(request.getQuantity())
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .version(0L)
+                    .source("MySQL")
+                    .build());
+        }
+        return store.afterBatchWrite(created);
+    }
+
+    private List<ProductResponse> insertPostgresChunk(ProductStore store, List<ProductRequest> chunk) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PostgresProduct> products = chunk.stream()
+                .map(request -> PostgresProduct.builder()
+                        .name(request.getName())
+                        .description(request.getDescription())
+                        .price(request.getPrice())
+                        .quantity(request.getQuantity())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .toList();
+        // Ids are assigned from the pooled sequence here; the INSERTs are batched when the chunk commits
+        return store.afterBatchWrite(postgresProductRepository.saveAll(products).stream()
+                .map(ProductRows::toResponse)
+                .toList());
+    }
+}
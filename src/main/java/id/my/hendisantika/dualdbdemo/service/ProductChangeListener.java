@@ -0,0 +1,33 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.outbox.ProductsReplicatedEvent;
+import id.my.hendisantika.dualdbdemo.writebehind.ProductsFlushedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a database's derived state in step with rows written around {@link ProductService}: write-behind
+ * flushes and rows copied in from the other database.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductChangeListener {
+
+    private final ProductStores productStores;
+
+    // Runs before the flushed rows leave the queue, so reads never fall back to a stale cache entry
+    @EventListener
+    public void onProductsFlushed(ProductsFlushedEvent event) {
+        event.products().forEach(productStores.get(event.database())::afterWrite);
+    }
+
+    // Replicated rows are bulk writes from the service's point of view; rows they overwrote leave the cache
+    @EventListener
+    public void onProductsReplicated(ProductsReplicatedEvent event) {
+        ProductStore store = productStores.get(event.target());
+        event.products().forEach(product -> store.getCache().invalidate(product.getId()));
+        store.afterBatchWrite(event.products());
+        event.deleted().forEach(store::afterDelete);
+    }
+}
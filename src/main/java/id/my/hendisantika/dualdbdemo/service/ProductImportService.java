@@ -0,0 +1,54 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.ImportFormat;
+import id.my.hendisantika.dualdbdemo.dto.ImportResult;
+import id.my.hendisantika.dualdbdemo.dto.ImportTarget;
+import id.my.hendisantika.dualdbdemo.importer.ProductImporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Locale;
+
+/**
+ * Bulk imports through {@link ProductImporter}, and what has to follow them on each loaded database.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private final ProductImporter productImporter;
+    private final ProductStores productStores;
+    private final ProductMetrics productMetrics;
+
+    /**
+     * Bulk-loads CSV or NDJSON products from {@code input} with COPY / LOAD DATA, bypassing JPA. Afterwards the
+     * change versions are bumped and the search index re-reads the loaded tables.
+     */
+    public ImportResult importProducts(InputStream input, ImportFormat format, ImportTarget target) {
+        return productMetrics.record(target.name().toLowerCase(Locale.ROOT), "import", () -> {
+            ImportResult result = productImporter.importProducts(input, format, target.getVendors());
+            for (DatabaseVendor vendor : target.getVendors()) {
+                ProductStore store = productStores.get(vendor);
+                store.getChangeVersion().bump();
+                store.getSearchIndex().rebuild(vendor);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * {@link #importProducts} from a file in {@code app.import.directory}.
+     */
+    public ImportResult importProductsFromFile(String file, ImportFormat format, ImportTarget target) {
+        try (InputStream input = Files.newInputStream(productImporter.resolveFile(file))) {
+            return importProducts(input, format, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
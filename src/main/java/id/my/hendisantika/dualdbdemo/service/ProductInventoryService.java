@@ -0,0 +1,72 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.InventoryProperties;
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+import id.my.hendisantika.dualdbdemo.inventory.ReleaseOutcome;
+import id.my.hendisantika.dualdbdemo.inventory.ReservationCombiner;
+import id.my.hendisantika.dualdbdemo.inventory.ReservationOutcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stock reservations against one database's {@code products.quantity}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductInventoryService {
+
+    private final ProductStores productStores;
+    private final ProductMetrics productMetrics;
+    private final InventoryProperties inventoryProperties;
+
+    /**
+     * Takes {@code quantity} off the product's stock if that much is left, with one conditional UPDATE, or with
+     * one UPDATE shared by the concurrent reservations of the product when combining is on.
+     *
+     * @throws InvalidRequestException when {@code quantity} is not between 1 and {@code max-quantity}
+     */
+    public ReservationOutcome reserve(DatabaseVendor vendor, Long id, int quantity) {
+        checkStockQuantity(quantity);
+        ProductStore store = productStores.get(vendor);
+        ReservationCombiner combiner = store.getReservationCombiner();
+        boolean combined = combiner.isEnabled();
+        return productMetrics.record(store.getMetricsTag(), combined ? "reserveCombined" : "reserve", () -> {
+            store.flushQueuedUpdate(id);
+            ReservationOutcome outcome = combined
+                    ? combiner.reserve(id, quantity)
+                    : store.getStock().reserve(id, quantity);
+            if (outcome == ReservationOutcome.RESERVED) {
+                store.afterStockChange(id);
+            }
+            return outcome;
+        });
+    }
+
+    /**
+     * Adds {@code quantity} to the product's stock, e.g. to restock it or to put back an abandoned checkout.
+     * It is not checked against earlier reservations, so it is an administrative operation; the only bound is
+     * that the stock must still fit the {@code quantity} column.
+     *
+     * @throws InvalidRequestException when {@code quantity} is not between 1 and {@code max-quantity}
+     */
+    public ReleaseOutcome release(DatabaseVendor vendor, Long id, int quantity) {
+        checkStockQuantity(quantity);
+        ProductStore store = productStores.get(vendor);
+        return productMetrics.record(store.getMetricsTag(), "release", () -> {
+            store.flushQueuedUpdate(id);
+            ReleaseOutcome outcome = store.getStock().release(id, quantity);
+            if (outcome == ReleaseOutcome.RELEASED) {
+                store.afterStockChange(id);
+            }
+            return outcome;
+        });
+    }
+
+    private void checkStockQuantity(int quantity) {
+        if (quantity < 1 || quantity > inventoryProperties.getMaxQuantity()) {
+            throw new InvalidRequestException(
+                    "Quantity must be between 1 and " + inventoryProperties.getMaxQuantity());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Records {@code product.operation} latency tagged by database, operation and outcome. When called inside a
+ * transaction the sample is stopped after commit or rollback so the timing covers the whole unit of work.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductMetrics {
+
+    public static final String MYSQL = "mysql";
+    public static final String POSTGRESQL = "postgresql";
+    public static final String BOTH = "both";
+
+    private final MeterRegistry registry;
+
+    public <T> T record(String database, String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            stopAfterCompletion(sample, database, operation, outcome);
+        }
+    }
+
+    public void record(String database, String operation, Runnable action) {
+        record(database, operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Inside a transaction the commit is part of the operation, so stop the clock once it completes
+    private void stopAfterCompletion(Timer.Sample sample, String database, String operation, String outcome) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stop(sample, database, operation, outcome);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stop(sample, database, operation, status == STATUS_COMMITTED ? outcome : "error");
+            }
+        });
+    }
+
+    private void stop(Timer.Sample sample, String database, String operation, String outcome) {
+        sample.stop(Timer.builder("product.operation")
+                .description("Latency of product service operations")
+                .tags("database", database, "operation", operation, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
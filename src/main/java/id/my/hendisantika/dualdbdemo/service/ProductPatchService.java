@@ -0,0 +1,78 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.ProductPatch;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Partial updates of a product with the conditional UPDATE of {@link PatchStatement}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductPatchService {
+
+    private final ProductStores productStores;
+    private final ProductMetrics productMetrics;
+
+    /**
+     * Sets only the fields present in {@code patch} with one {@code UPDATE ... WHERE id = ? AND version = ?}.
+     * PostgreSQL returns the row with {@code RETURNING}, a single round trip; on MySQL it is read back in the
+     * same transaction. A queued write-behind update of the product is written first, so it cannot overwrite
+     * the patch later.
+     *
+     * @return empty when the product does not exist
+     * @throws OptimisticLockingFailureException when the product is no longer at {@code patch.version}
+     */
+    public Optional<ProductResponse> patch(DatabaseVendor vendor, Long id, ProductPatch patch) {
+        PatchStatement statement = PatchStatement.of(id, patch);
+        ProductStore store = productStores.get(vendor);
+        return productMetrics.record(store.getMetricsTag(), "patch", () -> {
+            store.flushQueuedUpdate(id);
+            Optional<ProductResponse> patched = vendor == DatabaseVendor.POSTGRESQL
+                    ? updateReturning(store, statement)
+                    : new TransactionTemplate(store.getTransactionManager()).execute(status ->
+                            updateAndRead(store, statement, id));
+            if (patched.isEmpty()) {
+                return patchMissed(store.getJdbcTemplate(), id);
+            }
+            log.info("Patched {} product: {}", vendor.getDisplayName(), id);
+            return Optional.of(store.afterWrite(patched.get()));
+        });
+    }
+
+    private static Optional<ProductResponse> updateReturning(ProductStore store, PatchStatement statement) {
+        List<ProductResponse> patched = store.getJdbcTemplate().query(
+                statement.sql() + " RETURNING " + ProductRows.COLUMNS,
+                ProductRows.mapper(store.getVendor().getDisplayName()), statement.args());
+        return patched.stream().findFirst();
+    }
+
+    // MySQL has no RETURNING
+    private static Optional<ProductResponse> updateAndRead(ProductStore store, PatchStatement statement, Long id) {
+        JdbcTemplate jdbcTemplate = store.getJdbcTemplate();
+        if (jdbcTemplate.update(statement.sql(), statement.args()) == 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(jdbcTemplate.queryForObject(ProductRows.SELECT_BY_ID,
+                ProductRows.mapper(store.getVendor().getDisplayName()), id));
+    }
+
+    // Tells a missing product from a stale version once the conditional UPDATE matched nothing
+    private static Optional<ProductResponse> patchMissed(JdbcTemplate jdbcTemplate, Long id) {
+        Long rows = jdbcTemplate.queryForObject(ProductRows.COUNT_BY_ID, Long.class, id);
+        if (rows == null || rows == 0) {
+            return Optional.empty();
+        }
+        throw new OptimisticLockingFailureException("Product " + id + " was modified by someone else");
+    }
+}
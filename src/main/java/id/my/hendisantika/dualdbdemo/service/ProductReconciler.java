@@ -0,0 +1,338 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.BatchProperties;
+import id.my.hendisantika.dualdbdemo.config.properties.ReconcileProperties;
+import id.my.hendisantika.dualdbdemo.dto.BatchCreateResponse;
+import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
+import id.my.hendisantika.dualdbdemo.dto.ReconciliationReport;
+import id.my.hendisantika.dualdbdemo.exception.ReconcileInProgressException;
+import id.my.hendisantika.dualdbdemo.reconcile.BucketDigest;
+import id.my.hendisantika.dualdbdemo.reconcile.ProductTableDigest;
+import id.my.hendisantika.dualdbdemo.replication.ProductReplicaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Compares the content of both products tables without copying them.
+ * <p>
+ * Each table is read in id-range chunks, pausing between chunks, and the server reduces every chunk to one
+ * {@link BucketDigest} per hash-prefix bucket. The sums of all buckets are compared first; only when they
+ * differ are the buckets compared, and only rows in buckets that differ are read back, as id and hash, to
+ * find the rows without a counterpart. Rows are matched by content because the databases assign their own
+ * ids. A row left without a counterpart on both sides under the same key, the replication link between them
+ * or else the name, is the same product with different content: it is reported as different and never
+ * copied. Repair copies the remaining rows to the database that lacks them, never deletes, and links each
+ * copy to its source so that replication updates it instead of copying it back as a duplicate.
+ * <p>
+ * The tables are not read at one point in time: a row written during a run can be reported, and disappears
+ * from the next report once both databases have it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductReconciler implements Closeable {
+
+    private final ProductTableDigest mysqlProductDigest;
+    private final ProductTableDigest postgresProductDigest;
+    private final ProductReplicaStore mysqlReplicaStore;
+    private final ProductReplicaStore postgresReplicaStore;
+    private final ProductBatchService productBatchService;
+    private final ReconcileProperties properties;
+    private final BatchProperties batchProperties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ReconciliationReport> lastReport = new AtomicReference<>();
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        long interval = properties.getInterval();
+        if (interval <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ProductReconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduled, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public Optional<ReconciliationReport> getLastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    /**
+     * @throws ReconcileInProgressException when a run is already in progress
+     */
+    public ReconciliationReport reconcile(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ReconcileInProgressException("A reconciliation is already running");
+        }
+        try {
+            ReconciliationReport report = run(repair);
+            lastReport.set(report);
+            if (report.isConsistent()) {
+                log.info("Products consistent: {} rows in {} ms", report.getMysqlRows(), report.getElapsedMillis());
+            } else {
+                log.warn("Products differ: {} rows only in MySQL, {} only in PostgreSQL, {} different, "
+                                + "{} of {} buckets ({} ms)", report.getOnlyInMysqlCount(),
+                        report.getOnlyInPostgresCount(), report.getDifferentCount(), report.getMismatchedBuckets(),
+                        report.getBuckets(), report.getElapsedMillis());
+            }
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            reconcile(properties.isRepair());
+        } catch (RuntimeException e) {
+            log.warn("Scheduled reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private ReconciliationReport run(boolean repair) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.nanoTime();
+        int hexDigits = properties.getBucketHexDigits();
+
+        Map<String, BucketDigest> mysqlBuckets = bucketDigests(mysqlProductDigest, hexDigits);
+        Map<String, BucketDigest> postgresBuckets = bucketDigests(postgresProductDigest, hexDigits);
+        BucketDigest mysqlTotal = total(mysqlBuckets);
+        BucketDigest postgresTotal = total(postgresBuckets);
+
+        Set<String> mismatched = new TreeSet<>();
+        if (!mysqlTotal.equals(postgresTotal)) {
+            Set<String> buckets = new HashSet<>(mysqlBuckets.keySet());
+            buckets.addAll(postgresBuckets.keySet());
+            for (String bucket : buckets) {
+                if (!mysqlBuckets.getOrDefault(bucket, BucketDigest.EMPTY)
+                        .equals(postgresBuckets.getOrDefault(bucket, BucketDigest.EMPTY))) {
+                    mismatched.add(bucket);
+                }
+            }
+        }
+
+        List<Long> onlyInMysql = new ArrayList<>();
+        List<Long> onlyInPostgres = new ArrayList<>();
+        if (!mismatched.isEmpty()) {
+            Map<String, List<Long>> mysqlRows = rowHashes(mysqlProductDigest, hexDigits, mismatched);
+            Map<String, List<Long>> postgresRows = rowHashes(postgresProductDigest, hexDigits, mismatched);
+            Set<String> hashes = new HashSet<>(mysqlRows.keySet());
+            hashes.addAll(postgresRows.keySet());
+            for (String hash : hashes) {
+                List<Long> mysqlIds = mysqlRows.getOrDefault(hash, List.of());
+                List<Long> postgresIds = postgresRows.getOrDefault(hash, List.of());
+                // Duplicates only count once they outnumber the other side's copies
+                if (mysqlIds.size() > postgresIds.size()) {
+                    onlyInMysql.addAll(mysqlIds.subList(postgresIds.size(), mysqlIds.size()));
+                } else if (postgresIds.size() > mysqlIds.size()) {
+                    onlyInPostgres.addAll(postgresIds.subList(mysqlIds.size(), postgresIds.size()));
+                }
+            }
+            Collections.sort(onlyInMysql);
+            Collections.sort(onlyInPostgres);
+        }
+        Map<Long, Long> different = different(onlyInMysql, onlyInPostgres);
+        Set<Long> differentInPostgres = new HashSet<>(different.values());
+        onlyInMysql.removeIf(different::containsKey);
+        onlyInPostgres.removeIf(differentInPostgres::contains);
+
+        long copiedToPostgres = 0;
+        long copiedToMysql = 0;
+        if (repair) {
+            copiedToPostgres = copy(mysqlProductDigest, onlyInMysql, postgresReplicaStore,
+                    requests -> productBatchService.create(DatabaseVendor.POSTGRESQL, requests));
+            copiedToMysql = copy(postgresProductDigest, onlyInPostgres, mysqlReplicaStore,
+                    requests -> productBatchService.create(DatabaseVendor.MYSQL, requests));
+        }
+
+        int maxIds = properties.getMaxReportedIds();
+        return ReconciliationReport.builder()
+                .startedAt(startedAt)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                .consistent(mismatched.isEmpty())
+                .mysqlRows(mysqlTotal.rows())
+                .postgresRows(postgresTotal.rows())
+                .buckets(1 << (4 * hexDigits))
+                .mismatchedBuckets(mismatched.size())
+                .onlyInMysqlCount(onlyInMysql.size())
+                .onlyInPostgresCount(onlyInPostgres.size())
+                .onlyInMysql(List.copyOf(onlyInMysql.subList(0, Math.min(maxIds, onlyInMysql.size()))))
+                .onlyInPostgres(List.copyOf(onlyInPostgres.subList(0, Math.min(maxIds, onlyInPostgres.size()))))
+                .differentCount(different.size())
+                .different(first(different, maxIds))
+                .repaired(repair)
+                .copiedToMysql(copiedToMysql)
+                .copiedToPostgres(copiedToPostgres)
+                .build();
+    }
+
+    private Map<String, BucketDigest> bucketDigests(ProductTableDigest table, int hexDigits) {
+        Map<String, BucketDigest> buckets = new HashMap<>();
+        forEachChunk(table, (from, to) -> table.bucketDigests(from, to, hexDigits,
+                (bucket, digest) -> buckets.merge(bucket, digest, BucketDigest::plus)));
+        return buckets;
+    }
+
+    // Ids by row hash, for the rows in the given buckets only
+    private Map<String, List<Long>> rowHashes(ProductTableDigest table, int hexDigits, Set<String> buckets) {
+        Map<String, List<Long>> rows = new HashMap<>();
+        List<String> bucketList = List.copyOf(buckets);
+        forEachChunk(table, (from, to) -> table.rowHashes(from, to, hexDigits, bucketList,
+                (id, hash) -> rows.computeIfAbsent(hash, h -> new ArrayList<>(1)).add(id)));
+        return rows;
+    }
+
+    private void forEachChunk(ProductTableDigest table, IdRangeAction action) {
+        long[] range = table.idRange();
+        if (range == null) {
+            return;
+        }
+        long chunkSize = Math.max(1, properties.getChunkSize());
+        for (long from = range[0]; from <= range[1]; from += chunkSize) {
+            action.accept(from, Math.min(from + chunkSize, range[1] + 1));
+            pause();
+        }
+    }
+
+    /**
+     * Pairs rows without a counterpart that are the same product on both sides, MySQL id to PostgreSQL id:
+     * first by replication link, then by name, in id order.
+     */
+    private Map<Long, Long> different(List<Long> onlyInMysql, List<Long> onlyInPostgres) {
+        Map<Long, Long> pairs = new TreeMap<>();
+        if (onlyInMysql.isEmpty() || onlyInPostgres.isEmpty()) {
+            return pairs;
+        }
+        Set<Long> unpairedMysql = new HashSet<>(onlyInMysql);
+        Set<Long> unpairedPostgres = new HashSet<>(onlyInPostgres);
+        forEachChunk(onlyInMysql, ids -> mysqlReplicaStore.originalsOf(DatabaseVendor.POSTGRESQL, ids)
+                .forEach((mysqlId, postgresId) -> pair(pairs, unpairedMysql, unpairedPostgres, mysqlId, postgresId)));
+        forEachChunk(onlyInPostgres, ids -> postgresReplicaStore.originalsOf(DatabaseVendor.MYSQL, ids)
+                .forEach((postgresId, mysqlId) -> pair(pairs, unpairedMysql, unpairedPostgres, mysqlId, postgresId)));
+
+        Map<String, Deque<Long>> postgresByName = new HashMap<>();
+        List<Long> postgresIds = onlyInPostgres.stream().filter(unpairedPostgres::contains).toList();
+        forEachChunk(postgresIds, ids -> postgresProductDigest.names(ids).forEach((id, name) ->
+                postgresByName.computeIfAbsent(name, n -> new ArrayDeque<>()).add(id)));
+        List<Long> mysqlIds = onlyInMysql.stream().filter(unpairedMysql::contains).toList();
+        forEachChunk(mysqlIds, ids -> mysqlProductDigest.names(ids).forEach((mysqlId, name) -> {
+            Deque<Long> candidates = postgresByName.get(name);
+            if (candidates != null && !candidates.isEmpty()) {
+                pairs.put(mysqlId, candidates.poll());
+            }
+        }));
+        return pairs;
+    }
+
+    private static void pair(Map<Long, Long> pairs, Set<Long> unpairedMysql, Set<Long> unpairedPostgres,
+                             Long mysqlId, Long postgresId) {
+        if (unpairedMysql.contains(mysqlId) && unpairedPostgres.remove(postgresId)) {
+            unpairedMysql.remove(mysqlId);
+            pairs.put(mysqlId, postgresId);
+        }
+    }
+
+    private void forEachChunk(List<Long> ids, Consumer<List<Long>> action) {
+        int chunkSize = Math.max(1, batchProperties.getChunkSize());
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            action.accept(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+        }
+    }
+
+    private static Map<Long, Long> first(Map<Long, Long> pairs, int limit) {
+        Map<Long, Long> first = new TreeMap<>();
+        Iterator<Map.Entry<Long, Long>> entries = pairs.entrySet().iterator();
+        while (first.size() < limit && entries.hasNext()) {
+            Map.Entry<Long, Long> entry = entries.next();
+            first.put(entry.getKey(), entry.getValue());
+        }
+        return first;
+    }
+
+    private long copy(ProductTableDigest source, List<Long> ids, ProductReplicaStore target,
+                      Function<List<ProductRequest>, BatchCreateResponse> create) {
+        long copied = 0;
+        int chunkSize = Math.max(1, batchProperties.getChunkSize());
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            Map<Long, ProductRequest> rows = source.rows(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+            if (rows.isEmpty()) {
+                continue;
+            }
+            // Created in request order; the link makes replication treat each copy as its source's replica
+            List<Long> created = create.apply(List.copyOf(rows.values())).getIds();
+            Map<Long, Long> links = new HashMap<>();
+            Iterator<Long> sourceIds = rows.keySet().iterator();
+            for (Long id : created) {
+                links.put(sourceIds.next(), id);
+            }
+            target.link(source.getVendor(), links);
+            copied += created.size();
+        }
+        if (copied > 0) {
+            log.info("Copied {} products missing from the other database from {}", copied,
+                    source.getVendor().getDisplayName());
+        }
+        return copied;
+    }
+
+    private static BucketDigest total(Map<String, BucketDigest> buckets) {
+        return buckets.values().stream().reduce(BucketDigest.EMPTY, BucketDigest::plus);
+    }
+
+    private void pause() {
+        long pause = properties.getChunkPause();
+        if (pause <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IdRangeAction {
+        void accept(long from, long to);
+    }
+}
@@ -0,0 +1,217 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.ReplicationProperties;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.dto.ReplicationStatus;
+import id.my.hendisantika.dualdbdemo.outbox.ProductsReplicatedEvent;
+import id.my.hendisantika.dualdbdemo.replication.AppliedChanges;
+import id.my.hendisantika.dualdbdemo.replication.ProductReplicaStore;
+import id.my.hendisantika.dualdbdemo.replication.Tombstone;
+import id.my.hendisantika.dualdbdemo.replication.Watermark;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies every change of one database's products table to the other, incrementally.
+ * <p>
+ * Each origin is polled on its own thread of a pool separate from request handling and from the connection
+ * pools' other users: changed rows are read by {@code (updated_at, id)} after the watermark the target keeps
+ * for that origin, together with the tombstones of deleted rows, and applied to the target in one transaction
+ * per batch that also moves the watermark. A restart therefore resumes where the last committed batch ended.
+ * Full batches are followed by the next one straight away; a caught-up origin is polled every
+ * {@code poll-interval}. A failed poll is retried with the next one from the same watermark.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductReplicator implements Closeable {
+
+    private final ProductReplicaStore mysqlReplicaStore;
+    private final ProductReplicaStore postgresReplicaStore;
+    private final ReplicationProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<DatabaseVendor, Direction> directions = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.isEnabled() || scheduler != null || properties.getOrigins().isEmpty()) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        List<DatabaseVendor> origins = List.copyOf(properties.getOrigins());
+        scheduler = Executors.newScheduledThreadPool(origins.size(), r -> {
+            Thread t = new Thread(r, "ProductReplicator-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (DatabaseVendor origin : origins) {
+            Direction direction = origin == DatabaseVendor.MYSQL
+                    ? new Direction(mysqlReplicaStore, postgresReplicaStore)
+                    : new Direction(postgresReplicaStore, mysqlReplicaStore);
+            directions.put(origin, direction);
+            Gauge.builder("product.replication.lag", direction, Direction::lagMillis)
+                    .description("Age in milliseconds of the oldest change not replicated yet")
+                    .baseUnit("milliseconds")
+                    .tag("origin", origin.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+            scheduler.scheduleWithFixedDelay(() -> poll(direction), 0, properties.getPollInterval(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * One entry per replicated origin; empty while replication is disabled.
+     */
+    public synchronized List<ReplicationStatus> getStatus() {
+        List<ReplicationStatus> status = new ArrayList<>(directions.size());
+        for (DatabaseVendor origin : DatabaseVendor.values()) {
+            Direction direction = directions.get(origin);
+            if (direction != null) {
+                status.add(direction.status());
+            }
+        }
+        return status;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            // A batch in flight either commits with its watermark or not at all
+            scheduler.shutdown();
+        }
+    }
+
+    private void poll(Direction direction) {
+        ProductReplicaStore origin = direction.origin;
+        ProductReplicaStore target = direction.target;
+        int batchSize = properties.getBatchSize();
+        direction.lastPollAt = LocalDateTime.now();
+        try {
+            boolean full;
+            do {
+                Watermark watermark = target.watermark(origin.getVendor());
+                direction.watermark = watermark;
+                LocalDateTime until = LocalDateTime.now().minus(Duration.ofMillis(properties.getSettleTime()));
+                List<ProductResponse> changes = origin.changes(watermark, until, batchSize);
+                List<Tombstone> tombstones = origin.tombstones(watermark.tombstoneId(), until, batchSize);
+                full = changes.size() == batchSize || tombstones.size() == batchSize;
+                if (changes.isEmpty() && tombstones.isEmpty()) {
+                    break;
+                }
+                replicate(direction, watermark, changes, tombstones);
+                direction.behindSince = full ? direction.watermark.updatedAt() : null;
+            } while (full && !Thread.currentThread().isInterrupted());
+            direction.behindSince = null;
+            direction.lastError = null;
+        } catch (RuntimeException e) {
+            if (direction.behindSince == null) {
+                direction.behindSince = direction.lastCaughtUpAt;
+            }
+            direction.lastError = e.getMessage();
+            log.warn("Could not replicate {} changes to {}: {}", origin.getVendor().getDisplayName(),
+                    target.getVendor().getDisplayName(), e.getMessage());
+            return;
+        }
+        direction.lastCaughtUpAt = direction.lastPollAt;
+    }
+
+    private void replicate(Direction direction, Watermark watermark, List<ProductResponse> changes,
+                           List<Tombstone> tombstones) {
+        ProductReplicaStore origin = direction.origin;
+        ProductReplicaStore target = direction.target;
+        Set<Long> ids = new LinkedHashSet<>();
+        changes.forEach(product -> ids.add(product.getId()));
+        tombstones.forEach(tombstone -> ids.add(tombstone.productId()));
+
+        // A row's counterpart is either a copy the target made of it, or the target's row it is a copy of
+        Map<Long, Long> counterparts = new HashMap<>(target.replicasOf(origin.getVendor(), ids));
+        counterparts.putAll(origin.originalsOf(target.getVendor(), ids));
+
+        Watermark next = watermark.advance(changes, tombstones);
+        AppliedChanges applied = target.apply(origin.getVendor(), changes, tombstones, counterparts, next);
+        direction.watermark = next;
+        direction.replicated.addAndGet(applied.written().size());
+        direction.deleted.addAndGet(applied.deleted().size());
+        if (!tombstones.isEmpty()) {
+            // A failed prune only leaves tombstones behind the watermark; the next one removes them too
+            try {
+                origin.pruneTombstones(tombstones);
+            } catch (RuntimeException e) {
+                log.debug("Could not prune {} tombstones: {}", origin.getVendor().getDisplayName(), e.getMessage());
+            }
+        }
+        if (!applied.written().isEmpty() || !applied.deleted().isEmpty()) {
+            eventPublisher.publishEvent(new ProductsReplicatedEvent(target.getVendor(), applied.written(),
+                    applied.deleted()));
+        }
+        log.debug("Replicated {} changes and {} deletes from {} ({} skipped as not newer)",
+                applied.written().size(), applied.deleted().size(), origin.getVendor().getDisplayName(),
+                changes.size() - applied.written().size());
+    }
+
+    private static final class Direction {
+
+        private final ProductReplicaStore origin;
+        private final ProductReplicaStore target;
+        private final AtomicLong replicated = new AtomicLong();
+        private final AtomicLong deleted = new AtomicLong();
+        private volatile Watermark watermark;
+        // updated_at of the oldest change known not to be replicated; null when caught up
+        private volatile LocalDateTime behindSince;
+        private volatile LocalDateTime lastCaughtUpAt = LocalDateTime.now();
+        private volatile LocalDateTime lastPollAt;
+        private volatile String lastError;
+
+        private Direction(ProductReplicaStore origin, ProductReplicaStore target) {
+            this.origin = origin;
+            this.target = target;
+        }
+
+        private double lagMillis() {
+            LocalDateTime since = behindSince;
+            return since == null ? 0 : Math.max(0, Duration.between(since, LocalDateTime.now()).toMillis());
+        }
+
+        private ReplicationStatus status() {
+            Watermark current = watermark;
+            return ReplicationStatus.builder()
+                    .origin(origin.getVendor().getDisplayName())
+                    .target(target.getVendor().getDisplayName())
+                    .watermark(current != null ? current.updatedAt() : null)
+                    .watermarkId(current != null ? current.lastId() : 0)
+                    .tombstoneId(current != null ? current.tombstoneId() : 0)
+                    .lagMillis((long) lagMillis())
+                    .replicated(replicated.get())
+                    .deleted(deleted.get())
+                    .lastPollAt(lastPollAt)
+                    .lastError(lastError)
+                    .build();
+        }
+    }
+}
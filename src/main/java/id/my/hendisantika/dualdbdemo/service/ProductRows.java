@@ -0,0 +1,66 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.entity.mysql.MysqlProduct;
+import id.my.hendisantika.dualdbdemo.entity.postgresql.PostgresProduct;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+
+/**
+ * SQL and mappings for reading {@code products} rows into {@link ProductResponse}s, shared by the services
+ * that read around JPA. The statements work unchanged on both databases.
+ */
+final class ProductRows {
+
+    static final String COLUMNS = "id, name, description, price, quantity, created_at, updated_at, version";
+    static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM products WHERE id = ?";
+    static final String COUNT_BY_ID = "SELECT COUNT(*) FROM products WHERE id = ?";
+
+    private ProductRows() {
+    }
+
+    static RowMapper<ProductResponse> mapper(String source) {
+        return (rs, rowNum) -> ProductResponse.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .price(rs.getBigDecimal("price"))
+                .quantity(rs.getObject("quantity", Integer.class))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                .version(rs.getLong("version"))
+                .source(source)
+                .build();
+    }
+
+    static ProductResponse toResponse(MysqlProduct product) {
+        return ProductResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .quantity(product.getQuantity())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .version(product.getVersion())
+                .nameKey(product.getNameKey())
+                .source("MySQL")
+                .build();
+    }
+
+    static ProductResponse toResponse(PostgresProduct product) {
+        return ProductResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .quantity(product.getQuantity())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .version(product.getVersion())
+                .nameKey(product.getNameKey())
+                .source("PostgreSQL")
+                .build();
+    }
+}
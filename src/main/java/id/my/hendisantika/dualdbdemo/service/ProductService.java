@@ -1,21 +1,59 @@
 package id.my.hendisantika.dualdbdemo.service;
 
+import id.my.hendisantika.dualdbdemo.cache.ResponseSnapshot;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.datasource.HedgedReader;
+import id.my.hendisantika.dualdbdemo.config.properties.FanOutProperties;
+import id.my.hendisantika.dualdbdemo.dto.CombinedProducts;
+import id.my.hendisantika.dualdbdemo.dto.MergedProductSort;
+import id.my.hendisantika.dualdbdemo.dto.ProductPage;
 import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
 import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.dto.ProductSort;
+import id.my.hendisantika.dualdbdemo.dto.SearchMode;
 import id.my.hendisantika.dualdbdemo.entity.mysql.MysqlProduct;
 import id.my.hendisantika.dualdbdemo.entity.postgresql.PostgresProduct;
 import id.my.hendisantika.dualdbdemo.repository.mysql.MysqlProductRepository;
 import id.my.hendisantika.dualdbdemo.repository.postgresql.PostgresProductRepository;
+import id.my.hendisantika.dualdbdemo.search.ProductSearchIndex;
+import id.my.hendisantika.dualdbdemo.writebehind.WriteBehindQueue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Created by IntelliJ IDEA.
@@ -33,186 +71,672 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class ProductService {
 
+    // Marks the end of one database's rows in the streaming buffer
+    private static final ProductResponse END_OF_STREAM = new ProductResponse();
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int MIN_INDEXED_SEARCH_LENGTH = 3;
+
     private final MysqlProductRepository mysqlProductRepository;
     private final PostgresProductRepository postgresProductRepository;
+    private final ProductStore mysqlProductStore;
+    private final ProductStore postgresProductStore;
+    private final ProductMetrics productMetrics;
+    private final ProductSearchIndex productSearchIndex;
+    private final ExecutorService productFanOutExecutor;
+    private final FanOutProperties fanOutProperties;
+    private final ObjectMapper objectMapper;
+
+    // Last serialized list responses, reused while their ETag is still current
+    private final AtomicReference<ResponseSnapshot> mysqlProductsSnapshot = new AtomicReference<>();
+    private final AtomicReference<ResponseSnapshot> postgresProductsSnapshot = new AtomicReference<>();
+    private final AtomicReference<ResponseSnapshot> allProductsSnapshot = new AtomicReference<>();
+
+    private volatile Boolean mysqlNameIndex;
+    private volatile Boolean postgresNameIndex;
 
     // MySQL CRUD Operations
     @Transactional("mysqlTransactionManager")
     public ProductResponse createMysqlProduct(ProductRequest request) {
-        MysqlProduct product = MysqlProduct.builder()
-                .name(request.getName())
-                .description(request.getDescription())
-                .price(request.getPrice())
-                .quantity(request.getQuantity())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        return productMetrics.record(ProductMetrics.MYSQL, "create", () -> {
+            MysqlProduct product = MysqlProduct.builder()
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .price(request.getPrice())
+                    .quantity(request.getQuantity())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
 
-        MysqlProduct saved = mysqlProductRepository.save(product);
-        log.info("Created MySQL product: {}", saved.getId());
-        return toMysqlResponse(saved);
+            MysqlProduct saved = mysqlProductRepository.save(product);
+            log.info("Created MySQL product: {}", saved.getId());
+            return mysqlProductStore.afterWrite(ProductRows.toResponse(saved));
+        });
     }
 
     @Transactional(value = "mysqlTransactionManager", readOnly = true)
     public List<ProductResponse> getAllMysqlProducts() {
-        return mysqlProductRepository.findAll()
-                .stream()
-                .map(this::toMysqlResponse)
-                .toList();
+        return productMetrics.record(ProductMetrics.MYSQL, "findAll", () ->
+                mysqlProductRepository.findAll()
+                        .stream()
+                        .map(ProductRows::toResponse)
+                        .toList());
     }
 
-    @Transactional(value = "mysqlTransactionManager", readOnly = true)
+    public String getMysqlProductsETag() {
+        return mysqlProductStore.getChangeVersion().tag();
+    }
+
+    /**
+     * {@link #getAllMysqlProducts()} serialized to JSON, reused until the table's change version moves.
+     */
+    public ResponseSnapshot getAllMysqlProductsSnapshot() {
+        return productMetrics.record(ProductMetrics.MYSQL, "findAllSnapshot", () ->
+                snapshot(mysqlProductsSnapshot, getMysqlProductsETag(), () ->
+                        mysqlProductRepository.findAll()
+                                .stream()
+                                .map(ProductRows::toResponse)
+                                .toList()));
+    }
+
+    // Not @Transactional: findById opens its own read-only transaction and hedged reads borrow their own connections
     public Optional<ProductResponse> getMysqlProductById(Long id) {
-        return mysqlProductRepository.findById(id)
-                .map(this::toMysqlResponse);
+        return productMetrics.record(ProductMetrics.MYSQL, "findById", () -> {
+            Optional<ProductResponse> queued = mysqlProductStore.getWriteBehindQueue().pending(id);
+            if (queued.isPresent()) {
+                return queued;
+            }
+            HedgedReader hedgedReader = mysqlProductStore.getHedgedReader();
+            return mysqlProductStore.getCache().get(id, () -> {
+                if (hedgedReader.isEnabled()) {
+                    return hedgedReader.queryForObject(ProductRows.SELECT_BY_ID, ProductRows.mapper("MySQL"), id);
+                }
+                return mysqlProductRepository.findById(id)
+                        .map(ProductRows::toResponse);
+            });
+        });
     }
 
-    @Transactional("mysqlTransactionManager")
+    // Not @Transactional: a write-behind update only reads the current row, usually from the queue or the cache
     public Optional<ProductResponse> updateMysqlProduct(Long id, ProductRequest request) {
-        return mysqlProductRepository.findById(id)
-                .map(existing -> {
-                    existing.setName(request.getName());
-                    existing.setDescription(request.getDescription());
-                    existing.setPrice(request.getPrice());
-                    existing.setQuantity(request.getQuantity());
-                    existing.setUpdatedAt(LocalDateTime.now());
-                    MysqlProduct updated = mysqlProductRepository.save(existing);
-                    log.info("Updated MySQL product: {}", id);
-                    return toMysqlResponse(updated);
-                });
+        WriteBehindQueue writeBehindQueue = mysqlProductStore.getWriteBehindQueue();
+        if (writeBehindQueue.isEnabled()) {
+            return productMetrics.record(ProductMetrics.MYSQL, "updateQueued", () ->
+                    getMysqlProductById(id).map(current -> writeBehindQueue.enqueue(updated(current, request))));
+        }
+        return new TransactionTemplate(mysqlProductStore.getTransactionManager()).execute(status ->
+                productMetrics.record(ProductMetrics.MYSQL, "update", () ->
+                        mysqlProductRepository.findById(id)
+                                .map(existing -> {
+                                    existing.setName(request.getName());
+                                    existing.setDescription(request.getDescription());
+                                    existing.setPrice(request.getPrice());
+                                    existing.setQuantity(request.getQuantity());
+                                    existing.setUpdatedAt(LocalDateTime.now());
+                                    MysqlProduct updated = mysqlProductRepository.saveAndFlush(existing);
+                                    log.info("Updated MySQL product: {}", id);
+                                    return mysqlProductStore.afterWrite(ProductRows.toResponse(updated));
+                                })));
     }
 
     @Transactional("mysqlTransactionManager")
     public void deleteMysqlProduct(Long id) {
-        mysqlProductRepository.deleteById(id);
-        log.info("Deleted MySQL product: {}", id);
+        productMetrics.record(ProductMetrics.MYSQL, "delete", () -> {
+            mysqlProductStore.getWriteBehindQueue().discard(id);
+            mysqlProductRepository.deleteById(id);
+            mysqlProductStore.getReplicaStore().recordTombstone(id);
+            log.info("Deleted MySQL product: {}", id);
+            mysqlProductStore.afterDelete(id);
+        });
     }
 
     @Transactional(value = "mysqlTransactionManager", readOnly = true)
+    public ProductPage getMysqlProductPage(ProductSort sort, String cursor, int size) {
+        return productMetrics.record(ProductMetrics.MYSQL, "page", () -> {
+            PageCursor after = cursor == null ? null : PageCursor.decode(cursor, sort);
+            int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+            Limit limit = Limit.of(pageSize + 1);
+            List<MysqlProduct> rows = switch (sort) {
+                case ID -> mysqlProductRepository.findPageAfterId(after == null ? 0 : after.id(), limit);
+                case UPDATED_AT -> after == null
+                        ? mysqlProductRepository.findFirstPageByUpdatedAt(limit)
+                        : mysqlProductRepository.findPageBeforeUpdatedAt(after.updatedAt(), after.id(), limit);
+            };
+            return toPage(rows.stream().map(ProductRows::toResponse).toList(), sort, pageSize);
+        });
+    }
+
     public List<ProductResponse> searchMysqlProducts(String name) {
-        return mysqlProductRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(this::toMysqlResponse)
-                .toList();
+        return searchMysqlProducts(name, SearchMode.AUTO, DEFAULT_SEARCH_LIMIT);
+    }
+
+    public List<ProductResponse> searchMysqlProducts(String name, SearchMode mode, int limit) {
+        int max = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return productMetrics.record(ProductMetrics.MYSQL, "search", () -> {
+            if (mode == SearchMode.AUTO && productSearchIndex.isReady(DatabaseVendor.MYSQL)) {
+                return productSearchIndex.search(DatabaseVendor.MYSQL, name, max);
+            }
+            // Read-only, so read routing can send the search to a replica
+            return readOnly(mysqlProductStore.getTransactionManager(), () -> {
+                List<MysqlProduct> products = useSearchIndex(name, mode) && hasMysqlNameIndex()
+                        ? mysqlProductRepository.searchByNameIndex(mysqlPhrase(name), name.strip(), max)
+                        : mysqlProductRepository.findByNameContainingIgnoreCaseOrderById(name, Limit.of(max));
+                return products.stream()
+                        .map(ProductRows::toResponse)
+                        .toList();
+            });
+        });
     }
 
     // PostgreSQL CRUD Operations
     @Transactional("postgresTransactionManager")
     public ProductResponse createPostgresProduct(ProductRequest request) {
-        PostgresProduct product = PostgresProduct.builder()
-                .name(request.getName())
-                .description(request.getDescription())
-                .price(request.getPrice())
-                .quantity(request.getQuantity())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        return productMetrics.record(ProductMetrics.POSTGRESQL, "create", () -> {
+            PostgresProduct product = PostgresProduct.builder()
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .price(request.getPrice())
+                    .quantity(request.getQuantity())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
 
-        PostgresProduct saved = postgresProductRepository.save(product);
-        log.info("Created PostgreSQL product: {}", saved.getId());
-        return toPostgresResponse(saved);
+            PostgresProduct saved = postgresProductRepository.save(product);
+            log.info("Created PostgreSQL product: {}", saved.getId());
+            return postgresProductStore.afterWrite(ProductRows.toResponse(saved));
+        });
     }
 
     @Transactional(value = "postgresTransactionManager", readOnly = true)
     public List<ProductResponse> getAllPostgresProducts() {
-        return postgresProductRepository.findAll()
-                .stream()
-                .map(this::toPostgresResponse)
-                .toList();
+        return productMetrics.record(ProductMetrics.POSTGRESQL, "findAll", () ->
+                postgresProductRepository.findAll()
+                        .stream()
+                        .map(ProductRows::toResponse)
+                        .toList());
     }
 
-    @Transactional(value = "postgresTransactionManager", readOnly = true)
+    public String getPostgresProductsETag() {
+        return postgresProductStore.getChangeVersion().tag();
+    }
+
+    /**
+     * {@link #getAllPostgresProducts()} serialized to JSON, reused until the table's change version moves.
+     */
+    public ResponseSnapshot getAllPostgresProductsSnapshot() {
+        return productMetrics.record(ProductMetrics.POSTGRESQL, "findAllSnapshot", () ->
+                snapshot(postgresProductsSnapshot, getPostgresProductsETag(), () ->
+                        postgresProductRepository.findAll()
+                                .stream()
+                                .map(ProductRows::toResponse)
+                                .toList()));
+    }
+
+    // Not @Transactional: findById opens its own read-only transaction and hedged reads borrow their own connections
     public Optional<ProductResponse> getPostgresProductById(Long id) {
-        return postgresProductRepository.findById(id)
-                .map(this::toPostgresResponse);
+        return productMetrics.record(ProductMetrics.POSTGRESQL, "findById", () -> {
+            Optional<ProductResponse> queued = postgresProductStore.getWriteBehindQueue().pending(id);
+            if (queued.isPresent()) {
+                return queued;
+            }
+            HedgedReader hedgedReader = postgresProductStore.getHedgedReader();
+            return postgresProductStore.getCache().get(id, () -> {
+                if (hedgedReader.isEnabled()) {
+                    return hedgedReader.queryForObject(ProductRows.SELECT_BY_ID, ProductRows.mapper("PostgreSQL"), id);
+                }
+                return postgresProductRepository.findById(id)
+                        .map(ProductRows::toResponse);
+            });
+        });
     }
 
-    @Transactional("postgresTransactionManager")
+    // Not @Transactional: a write-behind update only reads the current row, usually from the queue or the cache
     public Optional<ProductResponse> updatePostgresProduct(Long id, ProductRequest request) {
-        return postgresProductRepository.findById(id)
-                .map(existing -> {
-                    existing.setName(request.getName());
-                    existing.setDescription(request.getDescription());
-                    existing.setPrice(request.getPrice());
-                    existing.setQuantity(request.getQuantity());
-                    existing.setUpdatedAt(LocalDateTime.now());
-                    PostgresProduct updated = postgresProductRepository.save(existing);
-                    log.info("Updated PostgreSQL product: {}", id);
-                    return toPostgresResponse(updated);
-                });
+        WriteBehindQueue writeBehindQueue = postgresProductStore.getWriteBehindQueue();
+        if (writeBehindQueue.isEnabled()) {
+            return productMetrics.record(ProductMetrics.POSTGRESQL, "updateQueued", () ->
+                    getPostgresProductById(id).map(current -> writeBehindQueue.enqueue(updated(current, request))));
+        }
+        return new TransactionTemplate(postgresProductStore.getTransactionManager()).execute(status ->
+                productMetrics.record(ProductMetrics.POSTGRESQL, "update", () ->
+                        postgresProductRepository.findById(id)
+                                .map(existing -> {
+                                    existing.setName(request.getName());
+                                    existing.setDescription(request.getDescription());
+                                    existing.setPrice(request.getPrice());
+                                    existing.setQuantity(request.getQuantity());
+                                    existing.setUpdatedAt(LocalDateTime.now());
+                                    PostgresProduct updated = postgresProductRepository.saveAndFlush(existing);
+                                    log.info("Updated PostgreSQL product: {}", id);
+                                    return postgresProductStore.afterWrite(ProductRows.toResponse(updated));
+                                })));
     }
 
     @Transactional("postgresTransactionManager")
     public void deletePostgresProduct(Long id) {
-        postgresProductRepository.deleteById(id);
-        log.info("Deleted PostgreSQL product: {}", id);
+        productMetrics.record(ProductMetrics.POSTGRESQL, "delete", () -> {
+            postgresProductStore.getWriteBehindQueue().discard(id);
+            postgresProductRepository.deleteById(id);
+            postgresProductStore.getReplicaStore().recordTombstone(id);
+            log.info("Deleted PostgreSQL product: {}", id);
+            postgresProductStore.afterDelete(id);
+        });
     }
 
     @Transactional(value = "postgresTransactionManager", readOnly = true)
+    public ProductPage getPostgresProductPage(ProductSort sort, String cursor, int size) {
+        return productMetrics.record(ProductMetrics.POSTGRESQL, "page", () -> {
+            PageCursor after = cursor == null ? null : PageCursor.decode(cursor, sort);
+            int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+            Limit limit = Limit.of(pageSize + 1);
+            List<PostgresProduct> rows = switch (sort) {
+                case ID -> postgresProductRepository.findPageAfterId(after == null ? 0 : after.id(), limit);
+                case UPDATED_AT -> after == null
+                        ? postgresProductRepository.findFirstPageByUpdatedAt(limit)
+                        : postgresProductRepository.findPageBeforeUpdatedAt(after.updatedAt(), after.id(), limit);
+            };
+            return toPage(rows.stream().map(ProductRows::toResponse).toList(), sort, pageSize);
+        });
+    }
+
     public List<ProductResponse> searchPostgresProducts(String name) {
-        return postgresProductRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(this::toPostgresResponse)
-                .toList();
+        return searchPostgresProducts(name, SearchMode.AUTO, DEFAULT_SEARCH_LIMIT);
+    }
+
+    public List<ProductResponse> searchPostgresProducts(String name, SearchMode mode, int limit) {
+        int max = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return productMetrics.record(ProductMetrics.POSTGRESQL, "search", () -> {
+            if (mode == SearchMode.AUTO && productSearchIndex.isReady(DatabaseVendor.POSTGRESQL)) {
+                return productSearchIndex.search(DatabaseVendor.POSTGRESQL, name, max);
+            }
+            // Read-only, so read routing can send the search to a replica
+            return readOnly(postgresProductStore.getTransactionManager(), () -> {
+                List<PostgresProduct> products = useSearchIndex(name, mode) && hasPostgresNameIndex()
+                        ? postgresProductRepository.searchByNameIndex(likePattern(name), name.strip(), max)
+                        : postgresProductRepository.findByNameContainingIgnoreCaseOrderById(name, Limit.of(max));
+                return products.stream()
+                        .map(ProductRows::toResponse)
+                        .toList();
+            });
+        });
     }
 
     // Get all products from both databases
     public List<ProductResponse> getAllProductsFromBothDatabases() {
-        // Execute both queries in parallel using CompletableFuture
-        CompletableFuture<List<ProductResponse>> mysqlFuture = CompletableFuture.supplyAsync(this::getAllMysqlProducts);
-        CompletableFuture<List<ProductResponse>> postgresFuture = CompletableFuture.supplyAsync(this::getAllPostgresProducts);
+        return getProductsFromBothDatabases(false).getProducts();
+    }
 
-        // Wait for both to complete and merge results
-        List<ProductResponse> allProducts = new ArrayList<>();
-        try {
-            allProducts.addAll(mysqlFuture.get());
-            allProducts.addAll(postgresFuture.get());
-        } catch (Exception e) {
-            log.error("Error fetching products from both databases", e);
-            throw new RuntimeException("Failed to fetch products from both databases", e);
-        }
+    /**
+     * Queries both databases in parallel on the fan-out executor. With {@code allowPartial} a database that
+     * fails or misses the timeout is reported in {@code missingSources} instead of failing the whole call.
+     */
+    public CombinedProducts getProductsFromBothDatabases(boolean allowPartial) {
+        return productMetrics.record(ProductMetrics.BOTH, "findAll", () -> {
+            Map<String, List<ProductResponse>> results = fanOut("fetch products from", allowPartial,
+                    Map.<String, Callable<List<ProductResponse>>>of(
+                            "MySQL", this::getAllMysqlProducts,
+                            "PostgreSQL", this::getAllPostgresProducts));
+
+            List<ProductResponse> allProducts = new ArrayList<>();
+            List<String> missingSources = new ArrayList<>();
+            for (String source : List.of("MySQL", "PostgreSQL")) {
+                List<ProductResponse> products = results.get(source);
+                if (products != null) {
+                    allProducts.addAll(products);
+                } else {
+                    missingSources.add(source);
+                }
+            }
+            return CombinedProducts.builder()
+                    .products(allProducts)
+                    .missingSources(missingSources)
+                    .build();
+        });
+    }
+
+    public String getAllProductsETag() {
+        return mysqlProductStore.getChangeVersion().tag() + "." + postgresProductStore.getChangeVersion().tag();
+    }
+
+    /**
+     * {@link #getProductsFromBothDatabases} serialized to JSON, reused until either change version moves.
+     * Partial results are serialized on every call and never reused.
+     */
+    public ResponseSnapshot getAllProductsSnapshot(boolean allowPartial) {
+        return productMetrics.record(ProductMetrics.BOTH, "findAllSnapshot", () -> {
+            String etag = getAllProductsETag();
+            ResponseSnapshot cached = allProductsSnapshot.get();
+            if (cached != null && etag.equals(cached.etag())) {
+                return cached;
+            }
+            CombinedProducts result = getProductsFromBothDatabases(allowPartial);
+            byte[] body = objectMapper.writeValueAsBytes(result.getProducts());
+            if (result.isPartial()) {
+                return new ResponseSnapshot(null, body, result.getMissingSources());
+            }
+            ResponseSnapshot snapshot = ResponseSnapshot.complete(etag, body);
+            allProductsSnapshot.set(snapshot);
+            return snapshot;
+        });
+    }
+
+    /**
+     * One page of products from both databases in a single global order. Each database returns its next
+     * {@code size} rows after its own position in parallel, the two sorted lists are merged, and the cursor
+     * records how far each side was consumed, so neither table is ever read in full.
+     */
+    public ProductPage getMergedProductPage(MergedProductSort sort, Sort.Direction direction, String cursor, int size) {
+        return productMetrics.record(ProductMetrics.BOTH, "mergedPage", () -> {
+            MergedPageCursor after = cursor == null ? MergedPageCursor.start(sort, direction)
+                    : MergedPageCursor.decode(cursor, sort, direction);
+            int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+            Sort order = Sort.by(direction, sort.getProperty(), "id");
+            Limit limit = Limit.of(pageSize);
+
+            Map<String, Window<ProductResponse>> windows = fanOut("page products from", false,
+                    Map.<String, Callable<Window<ProductResponse>>>of(
+                            "MySQL", () -> readOnly(mysqlProductStore.getTransactionManager(), () ->
+                                    scrollMysql(sort, MergedPageCursor.scrollPosition(sort, after.mysql()), order,
+                                            limit).map(ProductRows::toResponse)),
+                            "PostgreSQL", () -> readOnly(postgresProductStore.getTransactionManager(), () ->
+                                    scrollPostgres(sort, MergedPageCursor.scrollPosition(sort, after.postgres()), order,
+                                            limit).map(ProductRows::toResponse))));
+            List<ProductResponse> mysqlRows = windows.get("MySQL").getContent();
+            List<ProductResponse> postgresRows = windows.get("PostgreSQL").getContent();
+
+            Comparator<ProductResponse> comparator = direction.isAscending() ? sort.comparator()
+                    : sort.comparator().reversed();
+            List<ProductResponse> page = new ArrayList<>(pageSize);
+            int mysqlTaken = 0;
+            int postgresTaken = 0;
+            while (page.size() < pageSize && (mysqlTaken < mysqlRows.size() || postgresTaken < postgresRows.size())) {
+                boolean takeMysql = postgresTaken == postgresRows.size() || (mysqlTaken < mysqlRows.size()
+                        && comparator.compare(mysqlRows.get(mysqlTaken), postgresRows.get(postgresTaken)) <= 0);
+                page.add(takeMysql ? mysqlRows.get(mysqlTaken++) : postgresRows.get(postgresTaken++));
+            }
 
-        return allProducts;
+            boolean hasNext = mysqlTaken < mysqlRows.size() || postgresTaken < postgresRows.size()
+                    || windows.get("MySQL").hasNext() || windows.get("PostgreSQL").hasNext();
+            MergedPageCursor next = new MergedPageCursor(sort, direction,
+                    mysqlTaken > 0 ? MergedPageCursor.Position.of(sort, mysqlRows.get(mysqlTaken - 1)) : after.mysql(),
+                    postgresTaken > 0 ? MergedPageCursor.Position.of(sort, postgresRows.get(postgresTaken - 1))
+                            : after.postgres());
+            return ProductPage.builder()
+                    .products(page)
+                    .nextCursor(hasNext ? next.encode() : null)
+                    .build();
+        });
+    }
+
+    private Window<MysqlProduct> scrollMysql(MergedProductSort sort, ScrollPosition position, Sort order, Limit limit) {
+        return switch (sort) {
+            case NAME -> mysqlProductRepository.findAllBy(position, order, limit);
+            case PRICE -> mysqlProductRepository.findAllByPriceNotNull(position, order, limit);
+            case UPDATED_AT -> mysqlProductRepository.findAllByUpdatedAtNotNull(position, order, limit);
+        };
+    }
+
+    private Window<PostgresProduct> scrollPostgres(MergedProductSort sort, ScrollPosition position, Sort order,
+                                                   Limit limit) {
+        return switch (sort) {
+            case NAME -> postgresProductRepository.findAllBy(position, order, limit);
+            case PRICE -> postgresProductRepository.findAllByPriceNotNull(position, order, limit);
+            case UPDATED_AT -> postgresProductRepository.findAllByUpdatedAtNotNull(position, order, limit);
+        };
+    }
+
+    private static <T> T readOnly(PlatformTransactionManager transactionManager, Supplier<T> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> action.get());
+    }
+
+    /**
+     * Best matches from both databases, answered from the in-memory index when it is built, otherwise by
+     * searching both databases in parallel and ranking the combined results the same way.
+     */
+    public List<ProductResponse> searchAllProducts(String name, int limit) {
+        return productMetrics.record(ProductMetrics.BOTH, "search", () -> {
+            int max = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+            if (productSearchIndex.isReady()) {
+                return productSearchIndex.searchAll(name, max);
+            }
+            Map<String, List<ProductResponse>> results = fanOut("search products in", false,
+                    Map.<String, Callable<List<ProductResponse>>>of(
+                            "MySQL", () -> searchMysqlProducts(name, SearchMode.AUTO, max),
+                            "PostgreSQL", () -> searchPostgresProducts(name, SearchMode.AUTO, max)));
+            return results.values().stream()
+                    .flatMap(List::stream)
+                    .sorted(ProductSearchIndex.ranking(name))
+                    .limit(max)
+                    .toList();
+        });
     }
 
     // Sync product to both databases
     public void syncProductToBothDatabases(ProductRequest request) {
-        // Execute both inserts in parallel
-        CompletableFuture<ProductResponse> mysqlFuture = CompletableFuture.supplyAsync(() -> createMysqlProduct(request));
-        CompletableFuture<ProductResponse> postgresFuture = CompletableFuture.supplyAsync(() -> createPostgresProduct(request));
+        productMetrics.record(ProductMetrics.BOTH, "sync", () -> {
+            Map<String, ProductResponse> created = fanOut("sync product to", false,
+                    Map.<String, Callable<ProductResponse>>of(
+                            "MySQL", () -> createMysqlProduct(request),
+                            "PostgreSQL", () -> createPostgresProduct(request)));
+            // Pair the two rows, or the change replicator copies each of them to the other database again
+            postgresProductStore.getReplicaStore().link(DatabaseVendor.MYSQL,
+                    Map.of(created.get("MySQL").getId(), created.get("PostgreSQL").getId()));
+            log.info("Synced product to both databases: {}", request.getName());
+        });
+    }
 
+    /**
+     * Streams every product from both databases to {@code out} as NDJSON while the rows are read. Each database
+     * is streamed by its driver on the fan-out executor into one bounded buffer, so a slow client
+     * blocks the readers instead of growing the heap.
+     */
+    public void streamAllProducts(OutputStream out) {
+        productMetrics.record(ProductMetrics.BOTH, "stream", () -> {
+            try {
+                writeProductStream(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeProductStream(OutputStream out) throws IOException {
+        BlockingQueue<ProductResponse> buffer = new ArrayBlockingQueue<>(fanOutProperties.getStreamBufferSize());
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        List<Future<?>> producers = new ArrayList<>(2);
         try {
-            CompletableFuture.allOf(mysqlFuture, postgresFuture).get();
-            log.info("Synced product to both databases: {}", request.getName());
-        } catch (Exception e) {
-            log.error("Error syncing product to both databases", e);
-            throw new RuntimeException("Failed to sync product to both databases", e);
+            // Submitted inside the try: if the second submit is rejected, the first reader is still stopped
+            producers.add(productFanOutExecutor.submit(() -> produce(mysqlProductStore.getTransactionManager(),
+                    mysqlProductRepository::streamAll, buffer, failures, closed)));
+            producers.add(productFanOutExecutor.submit(() -> produce(postgresProductStore.getTransactionManager(),
+                    postgresProductRepository::streamAll, buffer, failures, closed)));
+            int finished = 0;
+            while (finished < producers.size()) {
+                ProductResponse product = buffer.poll();
+                if (product == null) {
+                    // Nothing buffered: push what we have to the client before blocking
+                    out.flush();
+                    product = buffer.take();
+                }
+                if (product == END_OF_STREAM) {
+                    if (!failures.isEmpty()) {
+                        throw new RuntimeException("Failed to stream products from both databases",
+                                failures.getFirst());
+                    }
+                    finished++;
+                    continue;
+                }
+                out.write(objectMapper.writeValueAsBytes(product));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming products", e);
+        } finally {
+            // Stops the readers if the client went away or a database failed
+            closed.set(true);
+            producers.forEach(producer -> producer.cancel(true));
+        }
+    }
+
+    private void produce(PlatformTransactionManager transactionManager, Supplier<Stream<ProductResponse>> query,
+                         BlockingQueue<ProductResponse> buffer, List<Throwable> failures, AtomicBoolean closed) {
+        try {
+            readOnly(transactionManager, () -> {
+                try (Stream<ProductResponse> products = query.get()) {
+                    Iterator<ProductResponse> iterator = products.iterator();
+                    while (iterator.hasNext()) {
+                        if (!enqueue(buffer, iterator.next(), closed)) {
+                            break;
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (!closed.get()) {
+                failures.add(e);
+            }
+        }
+        enqueue(buffer, END_OF_STREAM, closed);
+    }
+
+    // Waits while the buffer is full and gives up once the writer has stopped reading
+    private static boolean enqueue(BlockingQueue<ProductResponse> buffer, ProductResponse product, AtomicBoolean closed) {
+        try {
+            while (!closed.get()) {
+                if (buffer.offer(product, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Runs every call on the fan-out executor and waits for all of them within one shared deadline.
+     * Without {@code allowPartial} the first failure or timeout cancels (interrupts) the remaining calls
+     * and is rethrown; with it, failed or late sources are simply absent from the returned map.
+     */
+    private <T> Map<String, T> fanOut(String description, boolean allowPartial, Map<String, Callable<T>> calls) {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        try {
+            calls.forEach((source, call) -> futures.put(source, productFanOutExecutor.submit(call)));
+        } catch (RejectedExecutionException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            throw new RuntimeException("Failed to " + description + " both databases: fan-out executor is saturated", e);
         }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fanOutProperties.getTimeout());
+        Map<String, T> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+            String source = entry.getKey();
+            Future<T> future = entry.getValue();
+            try {
+                results.put(source, future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(f -> f.cancel(true));
+                throw new RuntimeException("Interrupted while waiting to " + description + " both databases", e);
+            } catch (ExecutionException | TimeoutException e) {
+                future.cancel(true);
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                if (!allowPartial) {
+                    futures.values().forEach(f -> f.cancel(true));
+                    log.error("Error trying to {} both databases: {} failed", description, source, cause);
+                    throw new RuntimeException("Failed to " + description + " both databases", cause);
+                }
+                log.warn("Returning partial results: {} did not answer: {}", source, cause.toString());
+            }
+        }
+        return results;
     }
 
-    private ProductResponse toMysqlResponse(MysqlProduct product) {
+    // The full row after a PUT, as queued for write-behind
+    private static ProductResponse updated(ProductResponse current, ProductRequest request) {
         return ProductResponse.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .quantity(product.getQuantity())
-                .createdAt(product.getCreatedAt())
-                .updatedAt(product.getUpdatedAt())
-                .source("MySQL")
+                .id(current.getId())
+                .name(request.getName())
+                .description(request.getDescription())
+                .price(request.getPrice())
+                .quantity(request.getQuantity())
+                .createdAt(current.getCreatedAt())
+                .updatedAt(LocalDateTime.now())
+                .version(current.getVersion() == null ? null : current.getVersion() + 1)
+                .source(current.getSource())
                 .build();
     }
 
-    private ProductResponse toPostgresResponse(PostgresProduct product) {
-        return ProductResponse.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .quantity(product.getQuantity())
-                .createdAt(product.getCreatedAt())
-                .updatedAt(product.getUpdatedAt())
-                .source("PostgreSQL")
+    // The ETag is taken before the rows are read: a write committing meanwhile bumps the version, so the
+    // snapshot is at worst newer than its tag and is replaced on the next call
+    private ResponseSnapshot snapshot(AtomicReference<ResponseSnapshot> last, String etag,
+                                      Supplier<List<ProductResponse>> rows) {
+        ResponseSnapshot cached = last.get();
+        if (cached != null && etag.equals(cached.etag())) {
+            return cached;
+        }
+        ResponseSnapshot snapshot = ResponseSnapshot.complete(etag, objectMapper.writeValueAsBytes(rows.get()));
+        last.set(snapshot);
+        return snapshot;
+    }
+
+    // Shorter terms are below the ngram/trigram size, so the index cannot narrow them down
+    private static boolean useSearchIndex(String name, SearchMode mode) {
+        return mode == SearchMode.AUTO && name.strip().length() >= MIN_INDEXED_SEARCH_LENGTH;
+    }
+
+    // Index presence is looked up once; restart after adding the index to start using it
+    private boolean hasMysqlNameIndex() {
+        Boolean present = mysqlNameIndex;
+        if (present == null) {
+            present = mysqlProductRepository.countNameSearchIndexes() > 0;
+            mysqlNameIndex = present;
+            log.info("MySQL name search index {}", present ? "found, using FULLTEXT search" : "missing, using LIKE");
+        }
+        return present;
+    }
+
+    private boolean hasPostgresNameIndex() {
+        Boolean present = postgresNameIndex;
+        if (present == null) {
+            present = postgresProductRepository.countNameSearchIndexes() > 0;
+            postgresNameIndex = present;
+            log.info("PostgreSQL name search index {}", present ? "found, using trigram search" : "missing, using LIKE");
+        }
+        return present;
+    }
+
+    // Double quotes would end the boolean-mode phrase early
+    private static String mysqlPhrase(String name) {
+        return "\"" + name.strip().replace("\"", " ") + "\"";
+    }
+
+    private static String likePattern(String name) {
+        String escaped = name.strip()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    // Pages are fetched with one extra row so the presence of a next page is known without a count query
+    private ProductPage toPage(List<ProductResponse> rows, ProductSort sort, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return ProductPage.builder().products(rows).build();
+        }
+        List<ProductResponse> page = rows.subList(0, pageSize);
+        ProductResponse last = page.getLast();
+        return ProductPage.builder()
+                .products(page)
+                .nextCursor(new PageCursor(sort, last.getId(), last.getUpdatedAt()).encode())
                 .build();
     }
+
 }
@@ -0,0 +1,114 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.cache.ChangeVersion;
+import id.my.hendisantika.dualdbdemo.cache.ProductCache;
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.datasource.HedgedReader;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.exception.WriteUnavailableException;
+import id.my.hendisantika.dualdbdemo.inventory.ProductStock;
+import id.my.hendisantika.dualdbdemo.inventory.ReservationCombiner;
+import id.my.hendisantika.dualdbdemo.outbox.ProductOutbox;
+import id.my.hendisantika.dualdbdemo.replication.ProductReplicaStore;
+import id.my.hendisantika.dualdbdemo.search.ProductSearchIndex;
+import id.my.hendisantika.dualdbdemo.writebehind.WriteBehindQueue;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Everything the product services use of one database besides its JPA repository, so that a feature is
+ * written once and handed the store of the database it works on. It also keeps the state derived from the
+ * table (change version, by-id cache and search index) in step with writes.
+ */
+@Getter
+@Builder
+public class ProductStore {
+
+    private final DatabaseVendor vendor;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final HedgedReader hedgedReader;
+    private final ChangeVersion changeVersion;
+    private final ProductCache cache;
+    private final ProductSearchIndex searchIndex;
+    private final WriteBehindQueue writeBehindQueue;
+    private final ProductOutbox outbox;
+    private final ProductReplicaStore replicaStore;
+    private final ProductStock stock;
+    private final ReservationCombiner reservationCombiner;
+
+    /**
+     * {@code database} tag of the {@link ProductMetrics} timers.
+     */
+    public String getMetricsTag() {
+        return vendor == DatabaseVendor.MYSQL ? ProductMetrics.MYSQL : ProductMetrics.POSTGRESQL;
+    }
+
+    // Derived state (the search index) follows the database only once the write has committed
+    public ProductResponse afterWrite(ProductResponse product) {
+        afterCommit(() -> {
+            changeVersion.bump();
+            cache.put(product);
+            searchIndex.put(vendor, product);
+        });
+        return product;
+    }
+
+    public void afterDelete(Long id) {
+        afterCommit(() -> {
+            changeVersion.bump();
+            cache.invalidate(id);
+            searchIndex.remove(vendor, id);
+        });
+    }
+
+    // Bulk-loaded rows are not put in the by-id cache, so a large import does not push out the hot entries
+    public List<ProductResponse> afterBatchWrite(List<ProductResponse> products) {
+        afterCommit(() -> {
+            changeVersion.bump();
+            products.forEach(product -> searchIndex.put(vendor, product));
+        });
+        return products;
+    }
+
+    // The search index does not hold quantity or version, so a stock change leaves it alone
+    public void afterStockChange(Long id) {
+        changeVersion.bump();
+        cache.invalidate(id);
+    }
+
+    /**
+     * Writes a queued write-behind update of the product first, so it cannot overwrite a write made around
+     * the queue later.
+     *
+     * @throws WriteUnavailableException when the queued update could not be written
+     */
+    public void flushQueuedUpdate(Long id) {
+        if (writeBehindQueue.pending(id).isEmpty()) {
+            return;
+        }
+        writeBehindQueue.flush();
+        if (writeBehindQueue.pending(id).isPresent()) {
+            throw new WriteUnavailableException("Queued update of product " + id + " could not be written");
+        }
+    }
+
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@link ProductStore} of each database, for the services that take the database as a parameter.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductStores {
+
+    private final ProductStore mysqlProductStore;
+    private final ProductStore postgresProductStore;
+
+    public ProductStore get(DatabaseVendor vendor) {
+        return vendor == DatabaseVendor.MYSQL ? mysqlProductStore : postgresProductStore;
+    }
+}
@@ -0,0 +1,64 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.SyncProperties;
+import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.dto.SyncMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Creates a product in both databases, either directly or through the origin database's outbox.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSyncService {
+
+    private final ProductService productService;
+    private final ProductStores productStores;
+    private final OutboxReplicator outboxReplicator;
+    private final SyncProperties syncProperties;
+    private final ProductMetrics productMetrics;
+
+    /**
+     * Syncs with {@code mode}, or {@code app.sync.mode} when it is {@code null}.
+     *
+     * @return the origin database's product in {@link SyncMode#OUTBOX} mode, empty after a direct sync
+     */
+    public Optional<ProductResponse> syncProductToBothDatabases(ProductRequest request, SyncMode mode,
+                                                                DatabaseVendor origin) {
+        if ((mode != null ? mode : syncProperties.getMode()) == SyncMode.DIRECT) {
+            productService.syncProductToBothDatabases(request);
+            return Optional.empty();
+        }
+        return Optional.of(syncProductViaOutbox(request,
+                origin != null ? origin : syncProperties.getOutbox().getOrigin()));
+    }
+
+    /**
+     * Creates the product in {@code origin} together with an outbox row, in one transaction, and returns once
+     * that committed. {@link OutboxReplicator} copies it to the other database in the background.
+     */
+    public ProductResponse syncProductViaOutbox(ProductRequest request, DatabaseVendor origin) {
+        return productMetrics.record(ProductMetrics.BOTH, "syncOutbox", () -> {
+            ProductStore store = productStores.get(origin);
+            ProductResponse product = new TransactionTemplate(store.getTransactionManager()).execute(status -> {
+                ProductResponse created = origin == DatabaseVendor.MYSQL
+                        ? productService.createMysqlProduct(request)
+                        : productService.createPostgresProduct(request);
+                store.getOutbox().enqueue(created);
+                ProductStore.afterCommit(outboxReplicator::wakeUp);
+                return created;
+            });
+            log.info("Created {} product {} and queued it for the other database", origin.getDisplayName(),
+                    product.getId());
+            return product;
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package id.my.hendisantika.dualdbdemo.writebehind;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+
+import java.util.List;
+
+/**
+ * Published once queued updates were committed to {@code database}, while reads still see them as pending.
+ */
+public record ProductsFlushedEvent(DatabaseVendor database, List<ProductResponse> products) {
+}
@@ -0,0 +1,351 @@
+package id.my.hendisantika.dualdbdemo.writebehind;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.WriteBehindProperties;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.exception.WriteUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for full-row product updates to one database.
+ * <p>
+ * Updates are keyed by id, so repeated updates of a product between two flushes collapse into the latest
+ * one. A flush writes the queued rows as one JDBC batch of UPDATEs per {@code flush-size} products, every
+ * {@code flush-interval}, as soon as {@code flush-size} products are queued, and once more when the context
+ * stops, while the listeners of {@link ProductsFlushedEvent} still exist. A
+ * product stays visible through {@link #pending} until its flush committed and {@link ProductsFlushedEvent}
+ * was handled, so reads keep seeing the latest accepted value. When a batch fails its rows are written one
+ * by one: a row the database refuses, e.g. for a constraint violation, is logged, counted and dropped so it
+ * cannot stall the queue, while a database that is unreachable or busy stops the flush and the remaining rows
+ * go back on the queue, unless a newer update was queued meanwhile, to be retried with the next flush.
+ */
+public class WriteBehindQueue implements SmartLifecycle, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    // The version only moves forward: a queued row carries the version reads saw for it, and a PATCH that
+    // committed in between has already bumped past the row's starting point
+    private static final String UPDATE_PRODUCT = "UPDATE products SET name = ?, description = ?, price = ?, "
+            + "quantity = ?, updated_at = ?, version = GREATEST(version + 1, COALESCE(?, 0)) WHERE id = ?";
+    private static final int[] UPDATE_TYPES =
+            {Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.INTEGER, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT};
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    // Stopped after the web server, so no request can queue an update behind the final flush
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final DatabaseVendor vendor;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, ProductResponse> pending = new ConcurrentHashMap<>();
+    // Rows taken by the running flush; read after pending, so a product never disappears in between
+    private final Map<Long, ProductResponse> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    public WriteBehindQueue(DatabaseVendor vendor, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, WriteBehindProperties properties,
+                            ApplicationEventPublisher eventPublisher) {
+        this.vendor = vendor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, vendor.getDisplayName() + "-WriteBehind");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, properties.getFlushInterval(),
+                    properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return scheduler != null;
+    }
+
+    /**
+     * Queues {@code product}, the complete row after the update, replacing an update of the same id that has
+     * not been flushed yet.
+     *
+     * @throws WriteUnavailableException when the queue is closed, or full and flushing on the caller's thread
+     *                                   did not make room, e.g. because the database is down
+     */
+    public ProductResponse enqueue(ProductResponse product) {
+        if (closed) {
+            throw new WriteUnavailableException(vendor.getDisplayName() + " write-behind queue is closed");
+        }
+        Long id = product.getId();
+        if (!pending.containsKey(id) && pending.size() >= properties.getMaxPending()) {
+            flush();
+            if (pending.size() >= properties.getMaxPending()) {
+                throw new WriteUnavailableException(vendor.getDisplayName() + " write-behind queue is full");
+            }
+        }
+        pending.put(id, product);
+        if (pending.size() >= properties.getFlushSize()) {
+            wakeUp();
+        }
+        return product;
+    }
+
+    /**
+     * The latest queued or flushing value of {@code id}, if any.
+     */
+    public Optional<ProductResponse> pending(Long id) {
+        ProductResponse product = pending.get(id);
+        return Optional.ofNullable(product != null ? product : inFlight.get(id));
+    }
+
+    /**
+     * Drops a queued update, e.g. because the product is being deleted. A flush already running may still
+     * write it; the UPDATE then either runs before the DELETE or matches no row.
+     */
+    public void discard(Long id) {
+        pending.remove(id);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Updates given up on because the database refused them.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes what was queued when the flush started, stopping when the database cannot be written.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            int batches = Math.ceilDiv(pending.size(), properties.getFlushSize());
+            for (int i = 0; i < batches && !pending.isEmpty(); i++) {
+                if (!write(take(properties.getFlushSize()))) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Flushing starts with the queue; the lifecycle is only used to flush before shutdown destroys beans
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !closed;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("{} write-behind flush did not finish in time", vendor.getDisplayName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("{} write-behind queue closed with {} unwritten updates", vendor.getDisplayName(),
+                    pending.size());
+        }
+    }
+
+    private void wakeUp() {
+        if (!flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                flushQueued.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; close() flushes
+            flushQueued.set(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("{} write-behind flush failed: {}", vendor.getDisplayName(), e.getMessage());
+        }
+    }
+
+    private List<ProductResponse> take(int limit) {
+        List<ProductResponse> batch = new ArrayList<>(Math.min(limit, pending.size()));
+        Iterator<Map.Entry<Long, ProductResponse>> entries = pending.entrySet().iterator();
+        while (batch.size() < limit && entries.hasNext()) {
+            Map.Entry<Long, ProductResponse> entry = entries.next();
+            ProductResponse product = entry.getValue();
+            inFlight.put(entry.getKey(), product);
+            if (pending.remove(entry.getKey(), product)) {
+                batch.add(product);
+            } else {
+                // Replaced by a newer update, which stays queued for the next batch
+                inFlight.remove(entry.getKey(), product);
+            }
+        }
+        return batch;
+    }
+
+    private boolean write(List<ProductResponse> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        int[] counts;
+        try {
+            counts = update(batch);
+        } catch (RuntimeException e) {
+            log.debug("Batch of {} queued {} updates failed, writing them one by one: {}", batch.size(),
+                    vendor.getDisplayName(), e.getMessage());
+            return writeOneByOne(batch);
+        }
+
+        List<ProductResponse> written = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            // 0 means the row was deleted meanwhile; drivers that cannot tell report SUCCESS_NO_INFO
+            if (counts == null || i >= counts.length || counts[i] != 0) {
+                written.add(batch.get(i));
+            }
+        }
+        publishWritten(batch, written);
+        return true;
+    }
+
+    private boolean writeOneByOne(List<ProductResponse> batch) {
+        List<ProductResponse> written = new ArrayList<>(batch.size());
+        List<ProductResponse> done = new ArrayList<>(batch.size());
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                ProductResponse product = batch.get(i);
+                int[] counts;
+                try {
+                    counts = update(List.of(product));
+                } catch (RuntimeException e) {
+                    if (!isRefused(e)) {
+                        List<ProductResponse> unwritten = batch.subList(i, batch.size());
+                        log.warn("Could not write {} queued {} updates, retrying with the next flush: {}",
+                                unwritten.size(), vendor.getDisplayName(), e.getMessage());
+                        requeue(unwritten);
+                        return false;
+                    }
+                    log.error("Dropping queued {} update of product {}: {}", vendor.getDisplayName(),
+                            product.getId(), e.getMessage());
+                    dropped.incrementAndGet();
+                    done.add(product);
+                    continue;
+                }
+                if (counts == null || counts.length == 0 || counts[0] != 0) {
+                    written.add(product);
+                }
+                done.add(product);
+            }
+            return true;
+        } finally {
+            publishWritten(done, written);
+        }
+    }
+
+    private int[] update(List<ProductResponse> products) {
+        return transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_PRODUCT,
+                products.stream()
+                        .map(product -> new Object[]{product.getName(), product.getDescription(),
+                                product.getPrice(), product.getQuantity(), product.getUpdatedAt(),
+                                product.getVersion(), product.getId()})
+                        .toList(), UPDATE_TYPES));
+    }
+
+    // A row the database refused will be refused again; anything else may be the database, not the row
+    private boolean isRefused(RuntimeException e) {
+        if (!(e instanceof NonTransientDataAccessException) || e instanceof NonTransientDataAccessResourceException) {
+            return false;
+        }
+        return !(e.getCause() instanceof SQLException cause && vendor.isConnectionError(cause));
+    }
+
+    private void requeue(List<ProductResponse> products) {
+        for (ProductResponse product : products) {
+            pending.putIfAbsent(product.getId(), product);
+            inFlight.remove(product.getId(), product);
+        }
+    }
+
+    private void publishWritten(List<ProductResponse> done, List<ProductResponse> written) {
+        if (done.isEmpty()) {
+            return;
+        }
+        log.debug("Wrote {} queued {} updates", written.size(), vendor.getDisplayName());
+        try {
+            eventPublisher.publishEvent(new ProductsFlushedEvent(vendor, written));
+        } catch (RuntimeException e) {
+            // The rows are written either way; a failing listener must not stop the rest of the flush
+            log.warn("Handling {} flushed {} updates failed: {}", written.size(), vendor.getDisplayName(),
+                    e.getMessage());
+        } finally {
+            done.forEach(product -> inFlight.remove(product.getId(), product));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package id.my.hendisantika.dualdbdemo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductCacheTest {
+
+    private static ProductResponse product(long id, String name) {
+        return ProductResponse.builder().id(id).name(name).source("MySQL").build();
+    }
+
+    private static ProductCache cache() {
+        return new ProductCache(Caffeine.newBuilder().maximumSize(100).build(), true);
+    }
+
+    @Test
+    @DisplayName("Should load a product once and serve later reads from the cache")
+    void shouldCacheLoadedProducts() {
+        ProductCache cache = cache();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.get(1L, () -> {
+                loads.incrementAndGet();
+                return Optional.of(product(1, "MacBook Air"));
+            });
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache a row loaded while a write committed")
+    void shouldNotCacheRowsRacingAWrite() {
+        ProductCache cache = cache();
+
+        cache.get(1L, () -> {
+            cache.put(product(1, "Renamed"));
+            return Optional.of(product(1, "Original"));
+        });
+
+        assertEquals("Renamed", cache.get(1L, Optional::empty).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("Should reload after invalidation")
+    void shouldReloadAfterInvalidation() {
+        ProductCache cache = cache();
+        cache.put(product(1, "iPhone"));
+        cache.invalidate(1L);
+
+        assertEquals(Optional.empty(), cache.get(1L, Optional::empty));
+    }
+}
@@ -0,0 +1,61 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    @DisplayName("Should open after the failure threshold and reject callers during the cool-down")
+    void shouldOpenAfterThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 60_000);
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Should let exactly one trial through once the cool-down has elapsed")
+    void shouldAllowSingleTrial() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure();
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Should close when the trial succeeds")
+    void shouldCloseAfterSuccessfulTrial() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure();
+        breaker.tryAcquirePermission();
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureCount());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Should reopen on a single failed trial regardless of the threshold")
+    void shouldReopenAfterFailedTrial() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 0);
+        breaker.forceOpen();
+        breaker.tryAcquirePermission();
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,50 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseVendorTest {
+
+    private static SQLTransientConnectionException poolTimeout(SQLException cause) {
+        return new SQLTransientConnectionException(
+                "MySQL-Pool - Connection is not available, request timed out after 30000ms.",
+                cause != null ? cause.getSQLState() : null, cause);
+    }
+
+    @Test
+    @DisplayName("Should treat SQLState class 08 and vendor connection codes as connection errors")
+    void shouldClassifyConnectionFailures() {
+        assertTrue(DatabaseVendor.MYSQL.isConnectionError(new SQLException("Communications link failure", "08S01")));
+        assertTrue(DatabaseVendor.MYSQL.isConnectionError(new SQLException("Too many connections", "HY000", 1040)));
+        assertTrue(DatabaseVendor.POSTGRESQL.isConnectionError(
+                new SQLException("terminating connection due to administrator command", "57P01")));
+    }
+
+    @Test
+    @DisplayName("Should not treat statement errors as connection errors")
+    void shouldIgnoreStatementFailures() {
+        assertFalse(DatabaseVendor.MYSQL.isConnectionError(new SQLException("Duplicate entry", "23000", 1062)));
+        assertFalse(DatabaseVendor.POSTGRESQL.isConnectionError(
+                new SQLException("duplicate key value violates unique constraint", "23505")));
+    }
+
+    @Test
+    @DisplayName("Should not treat a busy pool as a host failure")
+    void shouldIgnorePoolTimeout() {
+        assertFalse(DatabaseVendor.MYSQL.isConnectionError(poolTimeout(null)));
+        assertFalse(DatabaseVendor.POSTGRESQL.isConnectionError(poolTimeout(new SQLException("canceled", "57014"))));
+    }
+
+    @Test
+    @DisplayName("Should classify a pool timeout by the driver failure it carries")
+    void shouldClassifyPoolTimeoutByCause() {
+        assertTrue(DatabaseVendor.MYSQL.isConnectionError(
+                poolTimeout(new SQLException("Communications link failure", "08S01"))));
+    }
+}
@@ -0,0 +1,61 @@
+package id.my.hendisantika.dualdbdemo.config.datasource;
+
+import id.my.hendisantika.dualdbdemo.config.properties.DatabaseHost;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaBalancerTest {
+
+    private static HostStats stats(int index, int weight, long latencyMillis) {
+        DatabaseHost host = new DatabaseHost();
+        host.setPort(3300 + index);
+        host.setWeight(weight);
+        HostStats hostStats = new HostStats(index, host);
+        hostStats.recordSuccess(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        return hostStats;
+    }
+
+    @Test
+    @DisplayName("Should prefer the faster replica when load is equal")
+    void shouldPreferFasterReplica() {
+        List<HostStats> stats = List.of(stats(0, 1, 1), stats(1, 1, 10), stats(2, 1, 1));
+        ReplicaBalancer balancer = new ReplicaBalancer(ReplicaBalancer.Strategy.LEAST_OUTSTANDING, stats, i -> 0);
+
+        assertEquals(List.of(2, 1), balancer.rank(List.of(1, 2)));
+    }
+
+    @Test
+    @DisplayName("Should move traffic away from a replica with many outstanding connections")
+    void shouldAvoidBusyReplica() {
+        List<HostStats> stats = List.of(stats(0, 1, 1), stats(1, 1, 10), stats(2, 1, 1));
+        ReplicaBalancer balancer = new ReplicaBalancer(ReplicaBalancer.Strategy.LEAST_OUTSTANDING, stats,
+                i -> i == 2 ? 20 : 0);
+
+        assertEquals(List.of(1, 2), balancer.rank(List.of(1, 2)));
+    }
+
+    @Test
+    @DisplayName("Should honour static host weights")
+    void shouldHonourWeights() {
+        List<HostStats> stats = List.of(stats(0, 1, 1), stats(1, 20, 10), stats(2, 1, 1));
+        ReplicaBalancer balancer = new ReplicaBalancer(ReplicaBalancer.Strategy.LEAST_OUTSTANDING, stats, i -> 0);
+
+        assertEquals(List.of(1, 2), balancer.rank(List.of(1, 2)));
+    }
+
+    @Test
+    @DisplayName("Power of two choices should pick the cheaper of two hosts")
+    void powerOfTwoChoicesShouldPickCheaperHost() {
+        List<HostStats> stats = List.of(stats(0, 1, 1), stats(1, 1, 10), stats(2, 1, 1));
+        ReplicaBalancer balancer = new ReplicaBalancer(ReplicaBalancer.Strategy.POWER_OF_TWO_CHOICES, stats, i -> 0);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(2, balancer.rank(List.of(1, 2)).getFirst());
+        }
+    }
+}
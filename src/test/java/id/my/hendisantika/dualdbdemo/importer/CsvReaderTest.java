@@ -0,0 +1,39 @@
+package id.my.hendisantika.dualdbdemo.importer;
+
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    @DisplayName("Should read quoted CSV fields with commas, quotes and line breaks")
+    void shouldReadQuotedCsv() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "name,description\r\n\"Desk, oak\",\"Says \"\"hi\"\"\nand more\"\r\n\nLamp,\n"));
+
+        assertEquals(List.of("name", "description"), csv.next());
+        assertEquals(List.of("Desk, oak", "Says \"hi\"\nand more"), csv.next());
+        assertEquals(2, csv.getLine());
+        assertEquals(List.of("Lamp", ""), csv.next());
+        assertEquals(5, csv.getLine());
+        assertNull(csv.next());
+    }
+
+    @Test
+    @DisplayName("Should reject an unterminated quoted field")
+    void shouldRejectUnterminatedQuote() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("name\n\"Desk\n"));
+        csv.next();
+
+        assertThrows(InvalidRequestException.class, csv::next);
+    }
+}
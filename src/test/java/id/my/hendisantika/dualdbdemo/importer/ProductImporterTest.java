@@ -0,0 +1,26 @@
+package id.my.hendisantika.dualdbdemo.importer;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductImporterTest {
+
+    @Test
+    @DisplayName("Should encode rows in COPY text format with escapes and nulls")
+    void shouldEncodeCopyText() {
+        StringBuilder out = new StringBuilder();
+        ProductImporter.appendRow(out, ProductRequest.builder()
+                .name("Tab\there")
+                .description("C:\\new\nline")
+                .price(new BigDecimal("1E+1"))
+                .build(), "2026-10-17 22:00:00");
+
+        assertEquals("Tab\\there\tC:\\\\new\\nline\t10\t\\N\t2026-10-17 22:00:00\t2026-10-17 22:00:00\n",
+                out.toString());
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -222,4 +224,20 @@ class FailoverIntegrationTest {
         var result = productService.getPostgresProductById(created.getId());
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    @DisplayName("Should stream products from both databases")
+    void shouldStreamAllProducts() {
+        ProductResponse mysql = productService.createMysqlProduct(testProduct);
+        ProductResponse postgres = productService.createPostgresProduct(testProduct);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        productService.streamAllProducts(out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"id\":" + mysql.getId() + ","));
+        assertTrue(body.contains("\"id\":" + postgres.getId() + ","));
+        assertTrue(body.contains("\"source\":\"MySQL\""));
+        assertTrue(body.contains("\"source\":\"PostgreSQL\""));
+    }
 }
@@ -0,0 +1,111 @@
+package id.my.hendisantika.dualdbdemo.inventory;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.InventoryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationCombinerTest {
+
+    private final Map<Long, Long> stock = new HashMap<>();
+    private final List<Long> statements = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private ReservationCombiner combiner;
+
+    private ReservationCombiner combiner() {
+        InventoryProperties.Combining properties = new InventoryProperties.Combining();
+        properties.setEnabled(true);
+        // Long enough for every caller of a test to join the first window
+        properties.setWindow(300);
+        ProductStock productStock = new ProductStock(DatabaseVendor.MYSQL, null) {
+            @Override
+            public synchronized boolean tryReserve(long id, long quantity) {
+                statements.add(quantity);
+                Long left = stock.get(id);
+                if (left == null || left < quantity) {
+                    return false;
+                }
+                stock.put(id, left - quantity);
+                return true;
+            }
+
+            @Override
+            public synchronized boolean exists(long id) {
+                return stock.containsKey(id);
+            }
+        };
+        combiner = new ReservationCombiner(productStock, properties);
+        return combiner;
+    }
+
+    private List<ReservationOutcome> reserveConcurrently(long id, long... quantities) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ReservationOutcome>> futures = new ArrayList<>();
+        for (long quantity : quantities) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                return combiner.reserve(id, quantity);
+            }));
+        }
+        start.countDown();
+        List<ReservationOutcome> outcomes = new ArrayList<>();
+        for (Future<ReservationOutcome> future : futures) {
+            outcomes.add(future.get());
+        }
+        return outcomes;
+    }
+
+    @AfterEach
+    void shutDown() {
+        combiner.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should apply concurrent reservations of one product as a single statement")
+    void shouldCombineConcurrentReservations() throws Exception {
+        combiner();
+        stock.put(1L, 10L);
+
+        List<ReservationOutcome> outcomes = reserveConcurrently(1, 1, 2, 3);
+
+        assertTrue(outcomes.stream().allMatch(outcome -> outcome == ReservationOutcome.RESERVED));
+        assertEquals(List.of(6L), statements);
+        assertEquals(4L, stock.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should fall back to single reservations when the total is not available")
+    void shouldServeSingleReservationsWhenStockRunsOut() throws Exception {
+        combiner();
+        stock.put(1L, 3L);
+
+        List<ReservationOutcome> outcomes = reserveConcurrently(1, 2, 2);
+
+        assertEquals(1, Collections.frequency(outcomes, ReservationOutcome.RESERVED));
+        assertEquals(1, Collections.frequency(outcomes, ReservationOutcome.INSUFFICIENT_STOCK));
+        assertEquals(1L, stock.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should report an unknown product as not found")
+    void shouldReportMissingProduct() {
+        combiner();
+
+        assertEquals(ReservationOutcome.NOT_FOUND, combiner.reserve(42, 1));
+    }
+}
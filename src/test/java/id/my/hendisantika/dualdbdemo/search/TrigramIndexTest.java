@@ -0,0 +1,80 @@
+package id.my.hendisantika.dualdbdemo.search;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private static ProductResponse product(long id, String name) {
+        return ProductResponse.builder().id(id).name(name).source("MySQL").build();
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should keep posting lists sorted across appends, inserts and removals")
+    void shouldKeepPostingListSorted() {
+        LongPostingList posting = new LongPostingList();
+        for (long id : new long[]{5, 9, 300, 1_000_000}) {
+            posting.add(id);
+        }
+        posting.add(7);
+        posting.remove(300);
+
+        assertArrayEquals(new long[]{5, 7, 9, 1_000_000}, posting.toArray());
+        assertArrayEquals(new long[]{7, 1_000_000}, posting.retainAll(new long[]{1, 7, 8, 1_000_000}));
+    }
+
+    @Test
+    @DisplayName("Should find case-insensitive substrings and rank prefix matches first")
+    void shouldFindSubstrings() {
+        TrigramIndex index = new TrigramIndex(false);
+        index.putAll(List.of(product(1, "Apple MacBook Pro"), product(2, "MacBook Air"), product(3, "iPhone")));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("macbook", 10)));
+        assertEquals(List.of(3L), ids(index.search("PHO", 10)));
+        assertTrue(index.search("ipad", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reflect renames and deletes")
+    void shouldReflectUpdates() {
+        TrigramIndex index = new TrigramIndex(false);
+        index.put(product(1, "Galaxy Tab"));
+        index.put(product(1, "Pixel Tablet"));
+        index.put(product(2, "Galaxy Watch"));
+        index.remove(2);
+
+        assertTrue(index.search("galaxy", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("tablet", 10)));
+    }
+
+    @Test
+    @DisplayName("Should keep only searched fields and follow updates that leave the name alone")
+    void shouldStoreSearchedFieldsOnly() {
+        TrigramIndex index = new TrigramIndex(false);
+        ProductResponse product = product(1, "MacBook Air");
+        product.setDescription("Thin and light");
+        product.setQuantity(5);
+        index.put(product);
+        product.setPrice(new BigDecimal("999.00"));
+        index.put(product);
+
+        ProductResponse found = index.search("book", 10).getFirst();
+        assertEquals(new BigDecimal("999.00"), found.getPrice());
+        assertNull(found.getDescription());
+        assertNull(found.getQuantity());
+        assertTrue(index.search("thin", 10).isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.dto.MergedProductSort;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import id.my.hendisantika.dualdbdemo.exception.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MergedPageCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should decode both positions it encoded, including a side not read yet")
+    void shouldRoundTrip() {
+        MergedPageCursor cursor = new MergedPageCursor(MergedProductSort.NAME, Sort.Direction.DESC,
+                new MergedPageCursor.Position("Desk | oak.v2", 42), null);
+
+        assertEquals(cursor, MergedPageCursor.decode(cursor.encode(), MergedProductSort.NAME, Sort.Direction.DESC));
+    }
+
+    @Test
+    @DisplayName("Should merge names by the databases' key in code point order, not UTF-16 order")
+    void shouldCompareNameKeysByCodePoint() {
+        ProductResponse fullwidth = ProductResponse.builder().id(1L).name("\uFF21").nameKey("\uFF41").build();
+        ProductResponse emoji = ProductResponse.builder().id(2L).name("\uD83D\uDE00").nameKey("\uD83D\uDE00").build();
+        ProductResponse plain = ProductResponse.builder().id(3L).name("Zebra").nameKey("zebra").build();
+
+        assertEquals(List.of(plain, fullwidth, emoji),
+                Stream.of(emoji, fullwidth, plain).sorted(MergedProductSort.NAME.comparator()).toList());
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for another sort or direction")
+    void shouldRejectOtherSort() {
+        String token = MergedPageCursor.start(MergedProductSort.PRICE, Sort.Direction.ASC).encode();
+
+        assertThrows(InvalidCursorException.class,
+                () -> MergedPageCursor.decode(token, MergedProductSort.NAME, Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class,
+                () -> MergedPageCursor.decode(token, MergedProductSort.PRICE, Sort.Direction.DESC));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered and malformed cursors")
+    void shouldRejectTamperedCursors() {
+        String cheap = token("9.99");
+
+        assertThrows(InvalidCursorException.class,
+                () -> MergedPageCursor.decode("not base64!", MergedProductSort.PRICE, Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class, () -> MergedPageCursor.decode(
+                token("v2|PRICE|ASC|-|-"), MergedProductSort.PRICE, Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class, () -> MergedPageCursor.decode(
+                token("v1|PRICE|ASC|-"), MergedProductSort.PRICE, Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class, () -> MergedPageCursor.decode(
+                token("v1|PRICE|ASC|" + cheap + "|-"), MergedProductSort.PRICE, Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class, () -> MergedPageCursor.decode(
+                token("v1|PRICE|ASC|" + cheap + ".x|-"), MergedProductSort.PRICE, Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class, () -> MergedPageCursor.decode(
+                token("v1|PRICE|ASC|-|" + token("cheap") + ".7"), MergedProductSort.PRICE, Sort.Direction.ASC));
+    }
+}
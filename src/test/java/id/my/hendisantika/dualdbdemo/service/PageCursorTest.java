@@ -0,0 +1,52 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductSort;
+import id.my.hendisantika.dualdbdemo.exception.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should decode the position it encoded")
+    void shouldRoundTrip() {
+        PageCursor byId = new PageCursor(ProductSort.ID, 42, null);
+        PageCursor byUpdatedAt = new PageCursor(ProductSort.UPDATED_AT, 7, LocalDateTime.of(2026, 10, 17, 18, 30, 5));
+
+        assertEquals(byId, PageCursor.decode(byId.encode(), ProductSort.ID));
+        assertEquals(byUpdatedAt, PageCursor.decode(byUpdatedAt.encode(), ProductSort.UPDATED_AT));
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for another sort")
+    void shouldRejectOtherSort() {
+        String token = new PageCursor(ProductSort.ID, 42, null).encode();
+
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(token, ProductSort.UPDATED_AT));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered and malformed cursors")
+    void shouldRejectTamperedCursors() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("not base64!", ProductSort.ID));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(token("v2|ID|42|"), ProductSort.ID));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(token("v1|ID|42"), ProductSort.ID));
+        assertThrows(InvalidCursorException.class,
+                () -> PageCursor.decode(token("v1|ID|forty-two|"), ProductSort.ID));
+        assertThrows(InvalidCursorException.class,
+                () -> PageCursor.decode(token("v1|UPDATED_AT|42|"), ProductSort.UPDATED_AT));
+        assertThrows(InvalidCursorException.class,
+                () -> PageCursor.decode(token("v1|UPDATED_AT|42|yesterday"), ProductSort.UPDATED_AT));
+    }
+}
@@ -0,0 +1,50 @@
+package id.my.hendisantika.dualdbdemo.service;
+
+import id.my.hendisantika.dualdbdemo.dto.ProductPatch;
+import id.my.hendisantika.dualdbdemo.exception.InvalidRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PatchStatementTest {
+
+    @Test
+    @DisplayName("Should set only the provided fields on the row at the patch's version")
+    void shouldSetProvidedFields() {
+        ProductPatch patch = ProductPatch.builder().price(new BigDecimal("9.99")).quantity(3).version(7L).build();
+
+        PatchStatement statement = PatchStatement.of(42L, patch);
+
+        assertEquals("UPDATE products SET price = ?, quantity = ?, updated_at = ?, version = version + 1 "
+                + "WHERE id = ? AND version = ?", statement.sql());
+        Object[] args = statement.args();
+        assertEquals(5, args.length);
+        assertArrayEquals(new Object[]{new BigDecimal("9.99"), 3}, new Object[]{args[0], args[1]});
+        assertInstanceOf(LocalDateTime.class, args[2]);
+        assertEquals(42L, args[3]);
+        assertEquals(7L, args[4]);
+    }
+
+    @Test
+    @DisplayName("Should reject a patch without a version")
+    void shouldRejectMissingVersion() {
+        ProductPatch patch = ProductPatch.builder().name("MacBook Air").build();
+
+        assertThrows(InvalidRequestException.class, () -> PatchStatement.of(42L, patch));
+    }
+
+    @Test
+    @DisplayName("Should reject a patch without a field to set")
+    void shouldRejectEmptyPatch() {
+        ProductPatch patch = ProductPatch.builder().version(7L).build();
+
+        assertThrows(InvalidRequestException.class, () -> PatchStatement.of(42L, patch));
+    }
+}
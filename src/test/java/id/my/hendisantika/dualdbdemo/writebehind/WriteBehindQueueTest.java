@@ -0,0 +1,171 @@
+package id.my.hendisantika.dualdbdemo.writebehind;
+
+import id.my.hendisantika.dualdbdemo.config.datasource.DatabaseVendor;
+import id.my.hendisantika.dualdbdemo.config.properties.WriteBehindProperties;
+import id.my.hendisantika.dualdbdemo.dto.ProductResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+
+    private final List<List<Object[]>> batches = new ArrayList<>();
+    private final List<ProductsFlushedEvent> events = new ArrayList<>();
+    private Consumer<List<Object[]>> onBatch = batch -> {
+    };
+    private Consumer<ProductsFlushedEvent> onEvent = events::add;
+    private WriteBehindQueue queue;
+
+    private static ProductResponse product(long id, String name) {
+        return ProductResponse.builder().id(id).name(name).source("MySQL").build();
+    }
+
+    private WriteBehindQueue queue() {
+        return queue(new WriteBehindProperties());
+    }
+
+    private WriteBehindQueue queue(WriteBehindProperties properties) {
+        properties.setEnabled(true);
+        properties.setFlushInterval(60_000);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs, int[] argTypes) {
+                onBatch.accept(batchArgs);
+                batches.add(batchArgs);
+                int[] counts = new int[batchArgs.size()];
+                Arrays.fill(counts, 1);
+                return counts;
+            }
+        };
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        queue = new WriteBehindQueue(DatabaseVendor.MYSQL, jdbcTemplate, transactionManager, properties,
+                event -> onEvent.accept((ProductsFlushedEvent) event));
+        return queue;
+    }
+
+    @AfterEach
+    void closeQueue() {
+        queue.close();
+    }
+
+    @Test
+    @DisplayName("Should write only the latest of several updates to the same product")
+    void shouldCoalesceUpdatesById() {
+        WriteBehindQueue queue = queue();
+        queue.enqueue(product(1, "First"));
+        queue.enqueue(product(2, "Other"));
+        queue.enqueue(product(1, "Second"));
+
+        queue.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.getFirst().size());
+        assertTrue(batches.getFirst().stream().anyMatch(row -> "Second".equals(row[0])));
+        assertEquals(2, events.getFirst().products().size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    @DisplayName("Should serve a product from the queue until its flush is handled")
+    void shouldServePendingProducts() {
+        WriteBehindQueue queue = queue();
+        List<String> seenDuringFlush = new ArrayList<>();
+        onBatch = batch -> queue.pending(1L).ifPresent(product -> seenDuringFlush.add(product.getName()));
+        queue.enqueue(product(1, "Queued"));
+
+        assertEquals("Queued", queue.pending(1L).orElseThrow().getName());
+        queue.flush();
+
+        assertEquals(List.of("Queued"), seenDuringFlush);
+        assertTrue(queue.pending(1L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep queued updates when the flush fails")
+    void shouldRequeueFailedFlushes() {
+        WriteBehindQueue queue = queue();
+        onBatch = batch -> {
+            throw new IllegalStateException("database down");
+        };
+        queue.enqueue(product(1, "Kept"));
+
+        queue.flush();
+
+        assertEquals("Kept", queue.pending(1L).orElseThrow().getName());
+        assertTrue(events.isEmpty());
+        onBatch = batch -> {
+        };
+    }
+
+    @Test
+    @DisplayName("Should drop an update the database refuses and write the rest of its batch")
+    void shouldDropRefusedUpdates() {
+        WriteBehindQueue queue = queue();
+        onBatch = batch -> {
+            if (batch.stream().anyMatch(row -> "Refused".equals(row[0]))) {
+                throw new DataIntegrityViolationException("Data too long for column 'name'");
+            }
+        };
+        queue.enqueue(product(1, "First"));
+        queue.enqueue(product(2, "Refused"));
+        queue.enqueue(product(3, "Third"));
+
+        queue.flush();
+
+        assertEquals(List.of(1L, 3L), events.stream()
+                .flatMap(event -> event.products().stream())
+                .map(ProductResponse::getId)
+                .sorted()
+                .toList());
+        assertEquals(1, queue.getDropped());
+        assertEquals(0, queue.size());
+        assertTrue(queue.pending(2L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should write every queued update on close even when the flush listener fails")
+    void shouldFlushEverythingOnCloseDespiteFailingListener() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setFlushSize(2);
+        WriteBehindQueue queue = queue(properties);
+        onEvent = event -> {
+            throw new IllegalStateException("listener already destroyed");
+        };
+        for (long id = 1; id <= 5; id++) {
+            queue.enqueue(product(id, "Product " + id));
+        }
+
+        queue.close();
+
+        assertEquals(5, batches.stream().mapToInt(List::size).sum());
+        assertEquals(0, queue.size());
+        assertTrue(queue.pending(5L).isEmpty());
+    }
+}
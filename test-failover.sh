@@ -181,6 +181,43 @@ test_dual_sync() {
     log_info "Dual sync test completed!"
 }
 
+now_millis() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+report_throughput() {
+    local label="$1"
+    local count="$2"
+    local elapsed="$3"
+    [ "$elapsed" -lt 1 ] && elapsed=1
+    log_info "${label}: ${count} products in ${elapsed} ms ($(( count * 1000 / elapsed )) products/s)"
+}
+
+test_insert_throughput() {
+    local count="${1:-1000}"
+    local stamp=$(date +%s)
+    local payload=$(seq 1 "$count" | sed "s/.*/{\"name\":\"Batch ${stamp} &\",\"description\":\"Throughput test\",\"price\":9.99,\"quantity\":1}/" | paste -sd, -)
+    log_info "=== Comparing single and batch inserts with ${count} products ==="
+
+    for db in mysql postgres; do
+        local start=$(now_millis)
+        for i in $(seq 1 "$count"); do
+            curl -s -o /dev/null -X POST "${BASE_URL}/api/${db}/products" \
+                -H "Content-Type: application/json" \
+                -d "{\"name\":\"Single ${stamp} ${i}\",\"description\":\"Throughput test\",\"price\":9.99,\"quantity\":1}"
+        done
+        report_throughput "${db} single inserts" "$count" $(( $(now_millis) - start ))
+
+        start=$(now_millis)
+        curl -s -o /dev/null -X POST "${BASE_URL}/api/${db}/products/batch" \
+            -H "Content-Type: application/json" \
+            -d "[${payload}]"
+        report_throughput "${db} batch insert" "$count" $(( $(now_millis) - start ))
+    done
+
+    log_warn "Single-insert timings include one curl process per product; compare product.operation in /actuator/metrics for server-side numbers"
+}
+
 show_usage() {
     echo "Usage: $0 <command>"
     echo ""
@@ -191,6 +228,7 @@ show_usage() {
     echo "  mysql       - Test MySQL failover scenario"
     echo "  postgres    - Test PostgreSQL failover scenario"
     echo "  sync        - Test dual database sync"
+    echo "  throughput  - Compare single and batch insert throughput (optional count, default 1000)"
     echo "  all         - Run all tests"
     echo "  status      - Show container status"
     echo ""
@@ -220,6 +258,9 @@ case "$1" in
     sync)
         wait_for_app && test_dual_sync
         ;;
+    throughput)
+        wait_for_app && test_insert_throughput "$2"
+        ;;
     all)
         wait_for_app
         test_basic_crud